@@ -0,0 +1,75 @@
+package cc.maxmc.dependencydownload.common.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * A helper class to replace files without leaving them partially written.
+ */
+public final class FileUtils {
+
+    private FileUtils() {
+    }
+
+    /**
+     * Moves the provided file into place, atomically if the file system supports it.
+     *
+     * @param from the file to move
+     * @param to   the file to replace
+     * @throws IOException if moving the file was unsuccessful
+     */
+    public static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the provided file through a temporary file in the same directory, which is then moved into place.
+     *
+     * @param file   the file to write
+     * @param writer writes the contents
+     * @throws IOException if writing or moving the file was unsuccessful
+     */
+    public static void write(Path file, Writer writer) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+                writer.write(outputStream);
+            }
+            move(temporary, file);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Stores the provided properties, replacing the file atomically if the file system supports it.
+     *
+     * @param file       the file to write
+     * @param properties the properties
+     * @param comments   the comment written at the top of the file, or {@code null}
+     * @throws IOException if writing or moving the file was unsuccessful
+     */
+    public static void store(Path file, Properties properties, String comments) throws IOException {
+        write(file, outputStream -> properties.store(outputStream, comments));
+    }
+
+    /**
+     * Writes the contents of a file.
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+        void write(OutputStream outputStream) throws IOException;
+    }
+}
@@ -28,16 +28,25 @@ public final class HashUtils {
      */
     public static String getFileHash(Path path, String algorithm) throws NoSuchAlgorithmException, IOException {
         MessageDigest digest = MessageDigest.getInstance(algorithm);
+        updateDigest(digest, path);
+        return getHash(digest);
+    }
 
+    /**
+     * Updates the provided {@link MessageDigest} with the contents of the provided file.
+     *
+     * @param digest the message digest
+     * @param path   the file path
+     * @throws IOException if reading the file was unsuccessful
+     */
+    public static void updateDigest(MessageDigest digest, Path path) throws IOException {
         try (InputStream inputStream = Files.newInputStream(path)) {
-            byte[] buffer = new byte[1024];
+            byte[] buffer = new byte[8192];
             int total;
             while ((total = inputStream.read(buffer)) != -1) {
                 digest.update(buffer, 0, total);
             }
         }
-
-        return getHash(digest);
     }
 
     /**
@@ -4,7 +4,6 @@ import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 public class XMLUtils {
@@ -15,14 +14,21 @@ public class XMLUtils {
         }
     }
 
+    /**
+     * Gets the first node with the provided name.
+     *
+     * @param nodeList the nodes to search
+     * @param name     the name of the node
+     * @return the first node with the name or {@code null}
+     */
     @Nullable
     public static Node getNode(NodeList nodeList, String name) {
-        AtomicReference<Node> ret = new AtomicReference<>(null);
-        forEach(nodeList, (node) -> {
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            Node node = nodeList.item(i);
             if (node.getNodeName().equals(name)) {
-                ret.set(node);
+                return node;
             }
-        });
-        return ret.get();
+        }
+        return null;
     }
 }
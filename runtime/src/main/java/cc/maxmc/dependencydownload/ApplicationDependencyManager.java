@@ -2,6 +2,7 @@ package cc.maxmc.dependencydownload;
 
 import cc.maxmc.dependencydownload.dependency.JarMavenObject;
 import cc.maxmc.dependencydownload.downloader.FileDownloader;
+import cc.maxmc.dependencydownload.downloader.PooledFileDownloader;
 import cc.maxmc.dependencydownload.downloader.SingleThreadFileDownloader;
 import cc.maxmc.dependencydownload.path.DependencyPathProvider;
 import cc.maxmc.dependencydownload.path.DirectoryDependencyPathProvider;
@@ -30,9 +31,10 @@ public class ApplicationDependencyManager {
     private final Set<Relocation> relocations = new CopyOnWriteArraySet<>();
 
     private final DependencyPathProvider dependencyPathProvider;
+    private final FileDownloader downloader;
 
     /**
-     * Creates a {@link ApplicationDependencyManager}, uses the {@link DirectoryDependencyPathProvider}.
+     * Creates a {@link ApplicationDependencyManager}, uses the {@link DirectoryDependencyPathProvider} and a {@link SingleThreadFileDownloader}.
      *
      * @param cacheDirectory the directory used for downloaded and relocated dependencies.
      * @see DirectoryDependencyPathProvider
@@ -42,12 +44,46 @@ public class ApplicationDependencyManager {
     }
 
     /**
-     * Creates a {@link ApplicationDependencyManager}.
+     * Creates a {@link ApplicationDependencyManager}, uses the {@link DirectoryDependencyPathProvider}.
+     *
+     * @param cacheDirectory the directory used for downloaded and relocated dependencies.
+     * @param downloader     the downloader shared by all {@link DependencyManager}s created by this manager
+     * @see DirectoryDependencyPathProvider
+     * @see PooledFileDownloader
+     */
+    public ApplicationDependencyManager(@NotNull Path cacheDirectory, @NotNull FileDownloader downloader) {
+        this(new DirectoryDependencyPathProvider(cacheDirectory), downloader);
+    }
+
+    /**
+     * Creates a {@link ApplicationDependencyManager}, uses a {@link SingleThreadFileDownloader}.
      *
      * @param dependencyPathProvider the dependencyPathProvider used for downloaded and relocated dependencies
      */
     public ApplicationDependencyManager(@NotNull DependencyPathProvider dependencyPathProvider) {
+        this(dependencyPathProvider, new SingleThreadFileDownloader());
+    }
+
+    /**
+     * Creates a {@link ApplicationDependencyManager}.
+     *
+     * @param dependencyPathProvider the dependencyPathProvider used for downloaded and relocated dependencies
+     * @param downloader             the downloader shared by all {@link DependencyManager}s created by this manager
+     * @see PooledFileDownloader
+     */
+    public ApplicationDependencyManager(@NotNull DependencyPathProvider dependencyPathProvider, @NotNull FileDownloader downloader) {
         this.dependencyPathProvider = dependencyPathProvider;
+        this.downloader = downloader;
+    }
+
+    /**
+     * Gets the file downloader shared by all {@link DependencyManager}s created by this manager.
+     *
+     * @return the instance of {@link FileDownloader}
+     */
+    @NotNull
+    public FileDownloader getDownloader() {
+        return downloader;
     }
 
     /**
@@ -168,7 +204,6 @@ public class ApplicationDependencyManager {
     @CheckReturnValue
     public DependencyManager include(@NotNull Collection<JarMavenObject> dependencies, Executor executor) {
         dependencies = dependencies(dependencies);
-        FileDownloader downloader = new SingleThreadFileDownloader();
 
         DependencyManager manager = new DependencyManager(dependencyPathProvider, downloader, executor);
         manager.addDependencies(dependencies);
@@ -190,7 +225,6 @@ public class ApplicationDependencyManager {
     public DependencyManager include(@NotNull DependencyManager manager, Executor executor) {
         addRelocations(manager.getRelocations());
         List<JarMavenObject> dependencies = dependencies(manager.getDependencies());
-        FileDownloader downloader = new SingleThreadFileDownloader();
 
         DependencyManager dependencyManager = new DependencyManager(manager.getDependencyPathProvider(), downloader, executor);
         dependencyManager.addDependencies(dependencies);
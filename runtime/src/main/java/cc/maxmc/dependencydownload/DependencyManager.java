@@ -1,37 +1,58 @@
 package cc.maxmc.dependencydownload;
 
 import cc.maxmc.dependencydownload.classpath.ClasspathAppender;
+import cc.maxmc.dependencydownload.classpath.ClasspathFingerprint;
+import cc.maxmc.dependencydownload.common.util.FileUtils;
 import cc.maxmc.dependencydownload.common.util.HashUtils;
 import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.MavenObject;
 import cc.maxmc.dependencydownload.dependency.PomMavenObject;
+import cc.maxmc.dependencydownload.dependency.SnapshotDependency;
 import cc.maxmc.dependencydownload.downloader.FileDownloader;
+import cc.maxmc.dependencydownload.downloader.PartFile;
+import cc.maxmc.dependencydownload.metadata.MavenMetadata;
+import cc.maxmc.dependencydownload.metadata.MavenMetadataCache;
 import cc.maxmc.dependencydownload.path.CleanupPathProvider;
 import cc.maxmc.dependencydownload.path.DependencyPathProvider;
 import cc.maxmc.dependencydownload.path.DirectoryDependencyPathProvider;
+import cc.maxmc.dependencydownload.pom.EffectivePomBuilder;
 import cc.maxmc.dependencydownload.pom.PomManager;
-import cc.maxmc.dependencydownload.pom.PomParser;
+import cc.maxmc.dependencydownload.pom.PomModel;
 import cc.maxmc.dependencydownload.relocation.DefaultRelocationProvider;
 import cc.maxmc.dependencydownload.relocation.IRelocationProvider;
+import cc.maxmc.dependencydownload.relocation.JarMerger;
 import cc.maxmc.dependencydownload.relocation.Relocation;
+import cc.maxmc.dependencydownload.relocation.RelocationCache;
+import cc.maxmc.dependencydownload.relocation.RelocationScanner;
+import cc.maxmc.dependencydownload.repository.NegativeLookupCache;
+import cc.maxmc.dependencydownload.repository.RacingRepositoryStrategy;
 import cc.maxmc.dependencydownload.repository.Repository;
+import cc.maxmc.dependencydownload.repository.RepositoryStrategy;
+import cc.maxmc.dependencydownload.repository.SequentialRepositoryStrategy;
+import cc.maxmc.dependencydownload.resolve.DependencyResolver;
+import cc.maxmc.dependencydownload.resolve.ResolutionLockfile;
 import cc.maxmc.dependencydownload.resource.DependencyDownloadResource;
+import cc.maxmc.dependencydownload.verification.VerificationManifest;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -43,6 +64,14 @@ import java.util.stream.Stream;
 @SuppressWarnings("unused") // API
 public class DependencyManager {
 
+    /**
+     * The default maximum amount of dependencies downloaded at once by {@link #pipelineAll(List, IRelocationProvider, ClasspathAppender)}.
+     */
+    public static final int DEFAULT_PIPELINE_DOWNLOADS = 8;
+
+    // In memory only, so managers without a metadata cache of their own do not request the same metadata again
+    private static final MavenMetadataCache SHARED_METADATA_CACHE = new MavenMetadataCache(null);
+
     private final DependencyPathProvider dependencyPathProvider;
     private final FileDownloader downloader;
     private final Executor executor;
@@ -50,6 +79,20 @@ public class DependencyManager {
     private final List<JarMavenObject> dependencies = new CopyOnWriteArrayList<>();
     private final Set<Relocation> relocations = new CopyOnWriteArraySet<>();
     private final AtomicInteger step = new AtomicInteger(0);
+    private final Map<List<Repository>, DependencyResolver> resolvers = new ConcurrentHashMap<>();
+    private RepositoryStrategy repositoryStrategy = new SequentialRepositoryStrategy();
+    private NegativeLookupCache negativeLookupCache;
+    private VerificationManifest verificationManifest;
+    private ClasspathFingerprint classpathFingerprint;
+    private volatile String fingerprint;
+    private volatile boolean fingerprintRelocated;
+    private ResolutionLockfile resolutionLockfile;
+    private RelocationCache relocationCache;
+    private JarMerger jarMerger;
+    private MavenMetadataCache metadataCache = SHARED_METADATA_CACHE;
+    private volatile String lockKey;
+    private volatile List<JarMavenObject> lockedDependencies;
+    private final Map<JarMavenObject, String> verifiedHashes = new ConcurrentHashMap<>();
 
     /**
      * Creates a {@link DependencyManager}, uses the {@link DirectoryDependencyPathProvider}.
@@ -168,6 +211,270 @@ public class DependencyManager {
         return downloader;
     }
 
+    /**
+     * Gets the strategy used to pick the {@link Repository Repositories} dependencies are downloaded from.
+     *
+     * @return the instance of {@link RepositoryStrategy}
+     * @see RepositoryStrategy
+     */
+    @NotNull
+    public RepositoryStrategy getRepositoryStrategy() {
+        return repositoryStrategy;
+    }
+
+    /**
+     * Sets the strategy used to pick the {@link Repository Repositories} dependencies are downloaded from,
+     * defaults to the {@link SequentialRepositoryStrategy}.
+     *
+     * @param repositoryStrategy the repository strategy
+     * @throws IllegalStateException if this method is executed after downloading
+     * @see RacingRepositoryStrategy
+     */
+    public void setRepositoryStrategy(@NotNull RepositoryStrategy repositoryStrategy) {
+        if (step.get() > 0) {
+            throw new IllegalStateException("Cannot change the repository strategy after downloading");
+        }
+        this.repositoryStrategy = repositoryStrategy;
+    }
+
+    /**
+     * Gets the cache of files repositories are known to not have.
+     *
+     * @return the instance of {@link NegativeLookupCache} or {@code null} if misses are not cached
+     */
+    @Nullable
+    public NegativeLookupCache getNegativeLookupCache() {
+        return negativeLookupCache;
+    }
+
+    /**
+     * Sets the cache of files repositories are known to not have, which is consulted before requesting dependencies and poms.
+     * Misses are not cached by default.
+     *
+     * @param negativeLookupCache the negative lookup cache or {@code null} to not cache misses
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setNegativeLookupCache(@Nullable NegativeLookupCache negativeLookupCache) {
+        this.negativeLookupCache = negativeLookupCache;
+    }
+
+    /**
+     * Gets the cache of the {@code maven-metadata.xml} files used to resolve snapshot dependencies without a snapshot version
+     * and version ranges.
+     *
+     * @return the instance of {@link MavenMetadataCache}
+     */
+    @NotNull
+    public MavenMetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * Sets the cache of the {@code maven-metadata.xml} files used to resolve snapshot dependencies without a snapshot version
+     * and version ranges. Metadata is only cached in memory by default, in a cache shared by all {@link DependencyManager}s
+     * that do not have their own.
+     *
+     * @param metadataCache the metadata cache
+     * @throws IllegalStateException if this method is executed after downloading
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setMetadataCache(@NotNull MavenMetadataCache metadataCache) {
+        if (step.get() > 0) {
+            throw new IllegalStateException("Cannot change the metadata cache after downloading");
+        }
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * Gets the manifest of dependency files whose hash has already been verified.
+     *
+     * @return the instance of {@link VerificationManifest} or {@code null} if downloaded dependencies are hashed on every start
+     */
+    @Nullable
+    public VerificationManifest getVerificationManifest() {
+        return verificationManifest;
+    }
+
+    /**
+     * Sets the manifest of dependency files whose hash has already been verified, files that did not change since
+     * they were verified are not hashed again. Dependencies are hashed on every start by default.
+     *
+     * @param verificationManifest the verification manifest or {@code null} to hash dependencies on every start
+     * @throws IllegalStateException if this method is executed after downloading
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setVerificationManifest(@Nullable VerificationManifest verificationManifest) {
+        if (step.get() > 0) {
+            throw new IllegalStateException("Cannot change the verification manifest after downloading");
+        }
+        this.verificationManifest = verificationManifest;
+    }
+
+    /**
+     * Gets the store of relocated jars.
+     *
+     * @return the instance of {@link RelocationCache} or {@code null} if jars are relocated next to the dependencies
+     */
+    @Nullable
+    public RelocationCache getRelocationCache() {
+        return relocationCache;
+    }
+
+    /**
+     * Sets the store of relocated jars, which can be shared by multiple {@link DependencyManager}s. Jars relocated before with the same
+     * relocations (that apply to the jar) are reused, the relocated path of a dependency is linked to the stored jar.
+     * Jars are relocated next to the dependencies by default.
+     *
+     * @param relocationCache the relocation cache or {@code null} to relocate jars next to the dependencies
+     * @throws IllegalStateException if this method is executed after relocating
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setRelocationCache(@Nullable RelocationCache relocationCache) {
+        if (step.get() > 1) {
+            throw new IllegalStateException("Cannot change the relocation cache after relocating");
+        }
+        this.relocationCache = relocationCache;
+    }
+
+    /**
+     * Gets the merger the dependencies are merged into a single jar with before loading.
+     *
+     * @return the instance of {@link JarMerger} or {@code null} if every dependency is appended to the classpath separately
+     */
+    @Nullable
+    public JarMerger getJarMerger() {
+        return jarMerger;
+    }
+
+    /**
+     * Sets the merger the (potentially relocated) dependencies are merged into a single jar with before loading,
+     * which is appended to the classpath instead of every dependency. The merged jar is only merged again when the dependencies change.
+     * Every dependency is appended separately by default.
+     *
+     * @param jarMerger the jar merger or {@code null} to append every dependency separately
+     * @throws IllegalStateException if this method is executed after loading
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setJarMerger(@Nullable JarMerger jarMerger) {
+        if (step.get() > 2) {
+            throw new IllegalStateException("Cannot change the jar merger after loading");
+        }
+        this.jarMerger = jarMerger;
+    }
+
+    /**
+     * Gets the store for the classpath of the last successful start.
+     *
+     * @return the instance of {@link ClasspathFingerprint} or {@code null} if the classpath is not stored
+     * @see #loadFromFingerprint(ClasspathAppender)
+     */
+    @Nullable
+    public ClasspathFingerprint getClasspathFingerprint() {
+        return classpathFingerprint;
+    }
+
+    /**
+     * Sets the store for the classpath of the last successful start, which is written by {@link #loadAll(ClasspathAppender)}
+     * after {@link #loadFromFingerprint(ClasspathAppender)} did not find a usable classpath. The classpath is not stored by default.
+     *
+     * @param classpathFingerprint the classpath fingerprint or {@code null} to not store the classpath
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setClasspathFingerprint(@Nullable ClasspathFingerprint classpathFingerprint) {
+        this.classpathFingerprint = classpathFingerprint;
+    }
+
+    /**
+     * Gets the store for the transitive dependencies resolved by {@link #loadTransitives(List)}.
+     *
+     * @return the instance of {@link ResolutionLockfile} or {@code null} if transitive dependencies are resolved on every start
+     */
+    @Nullable
+    public ResolutionLockfile getResolutionLockfile() {
+        return resolutionLockfile;
+    }
+
+    /**
+     * Sets the store for the transitive dependencies resolved by {@link #loadTransitives(List)}. When the dependencies and repositories
+     * are the same as when it was written, the stored transitive dependencies are used without retrieving any pom.
+     * Transitive dependencies are resolved on every start by default.
+     *
+     * @param resolutionLockfile the resolution lockfile or {@code null} to resolve transitive dependencies on every start
+     * @throws IllegalStateException if this method is executed after downloading
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public void setResolutionLockfile(@Nullable ResolutionLockfile resolutionLockfile) {
+        if (step.get() > 0) {
+            throw new IllegalStateException("Cannot change the resolution lockfile after downloading");
+        }
+        this.resolutionLockfile = resolutionLockfile;
+    }
+
+    /**
+     * Loads the classpath stored by the last successful start, if the dependencies, relocations and dependency paths
+     * are the same as then and none of the stored files changed. This skips downloading, verifying and relocating entirely.
+     * If this returns {@code false} the regular steps should be executed, ending with {@link #loadAll(ClasspathAppender)},
+     * which then stores the classpath for the next start.
+     *
+     * @param classpathAppender the classpath appender
+     * @return true if the dependencies were loaded
+     * @throws MalformedURLException if the provided {@link ClasspathAppender} fails to append a file
+     * @throws IllegalStateException if no {@link ClasspathFingerprint} was set or this method is executed after downloading
+     * @see #setClasspathFingerprint(ClasspathFingerprint)
+     * @see #loadFromFingerprint(ClasspathAppender, boolean)
+     */
+    public boolean loadFromFingerprint(@NotNull ClasspathAppender classpathAppender) throws MalformedURLException {
+        return loadFromFingerprint(classpathAppender, !relocations.isEmpty());
+    }
+
+    /**
+     * Loads the classpath stored by the last successful start, if the dependencies, relocations and dependency paths
+     * are the same as then, the same (relocated or downloaded) dependencies are loaded and none of the stored files changed.
+     * This skips downloading, verifying and relocating entirely.
+     * If this returns {@code false} the regular steps should be executed, ending with {@link #loadAll(ClasspathAppender)},
+     * which then stores the classpath for the next start if it loads the same dependencies.
+     *
+     * @param classpathAppender the classpath appender
+     * @param relocated         if the relocated dependencies are loaded, rather than the dependencies as downloaded
+     * @return true if the dependencies were loaded
+     * @throws MalformedURLException if the provided {@link ClasspathAppender} fails to append a file
+     * @throws IllegalStateException if no {@link ClasspathFingerprint} was set or this method is executed after downloading
+     * @see #setClasspathFingerprint(ClasspathFingerprint)
+     */
+    public boolean loadFromFingerprint(@NotNull ClasspathAppender classpathAppender, boolean relocated) throws MalformedURLException {
+        if (classpathFingerprint == null) {
+            throw new IllegalStateException("No classpath fingerprint has been set");
+        }
+        if (step.get() > 0) {
+            throw new IllegalStateException("Download has already been executed");
+        }
+
+        for (JarMavenObject dependency : dependencies) {
+            if (dependency instanceof SnapshotDependency && !((SnapshotDependency) dependency).isResolved()) {
+                // The latest snapshot may have changed since the classpath was stored
+                this.fingerprint = null;
+                return false;
+            }
+        }
+
+        String fingerprint = ClasspathFingerprint.compute(dependencies, relocations, dependencyPathProvider, jarMerger, relocated);
+        List<Path> classpath = classpathFingerprint.getClasspath(fingerprint);
+        if (classpath == null) {
+            // Stored by loadAll once the regular steps succeed
+            this.fingerprintRelocated = relocated;
+            this.fingerprint = fingerprint;
+            return false;
+        }
+        if (!step.compareAndSet(0, 3)) {
+            throw new IllegalStateException("Download has already been executed");
+        }
+
+        for (Path path : classpath) {
+            classpathAppender.appendFileToClasspath(path);
+        }
+        return true;
+    }
+
     /**
      * Loads dependencies and relocations from the resource generated by the gradle plugin.
      *
@@ -218,7 +525,12 @@ public class DependencyManager {
      * @throws IllegalStateException if dependencies have already been queued for download once
      */
     public CompletableFuture<Void> downloadAll(@NotNull List<Repository> repositories) {
-        return CompletableFuture.allOf(download(repositories));
+        return CompletableFuture.allOf(download(repositories)).whenComplete((result, throwable) -> {
+            saveState();
+            if (throwable == null) {
+                saveLockfile();
+            }
+        });
     }
 
     /**
@@ -288,6 +600,7 @@ public class DependencyManager {
 
     /**
      * Loads all the (potentially relocated) dependencies with provided {@link ClasspathAppender}.
+     * Stores the classpath for the next start if {@link #loadFromFingerprint(ClasspathAppender)} was executed before.
      *
      * @param classpathAppender the classpath appender
      * @return a future that will complete exceptionally if any of the dependencies fail to
@@ -295,45 +608,309 @@ public class DependencyManager {
      * @throws IllegalStateException if dependencies have already been queued for load once
      */
     public CompletableFuture<Void> loadAll(@NotNull ClasspathAppender classpathAppender) {
-        return CompletableFuture.allOf(load(classpathAppender));
+        boolean relocated = step.get() == 2;
+        return CompletableFuture.allOf(load(classpathAppender)).whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                saveFingerprint(relocated);
+            }
+        });
+    }
+
+    /**
+     * Downloads, relocates and loads all the dependencies in this {@link DependencyManager} as a pipeline:
+     * every dependency is relocated as soon as it is downloaded and verified, instead of waiting for all downloads to finish.
+     * Runs at most {@link #DEFAULT_PIPELINE_DOWNLOADS} downloads and one relocation per available processor at once.
+     *
+     * @param repositories      an ordered list of repositories that will be tried one-by-one, in order
+     * @param provider          the relocation provider or {@code null} to not relocate the dependencies
+     * @param classpathAppender the classpath appender
+     * @return a future that will complete exceptionally if any of the dependencies fail to download, relocate or load,
+     * otherwise completes when all dependencies are loaded
+     * @throws IllegalStateException if dependencies have already been queued for download once
+     * @see #pipelineAll(List, IRelocationProvider, ClasspathAppender, int, int)
+     */
+    public CompletableFuture<Void> pipelineAll(@NotNull List<Repository> repositories, @Nullable IRelocationProvider provider, @NotNull ClasspathAppender classpathAppender) {
+        return pipelineAll(repositories, provider, classpathAppender, DEFAULT_PIPELINE_DOWNLOADS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Downloads, relocates and loads all the dependencies in this {@link DependencyManager} as a pipeline:
+     * every dependency is relocated as soon as it is downloaded and verified, instead of waiting for all downloads to finish.
+     * Dependencies are appended to the classpath in the order they were added, as soon as they and all dependencies before them are ready.
+     * This replaces executing {@link #downloadAll(List)}, {@link #relocateAll(IRelocationProvider)} and {@link #loadAll(ClasspathAppender)}.
+     *
+     * @param repositories      an ordered list of repositories that will be tried one-by-one, in order
+     * @param provider          the relocation provider or {@code null} to not relocate the dependencies
+     * @param classpathAppender the classpath appender
+     * @param maxDownloads      the maximum amount of dependencies downloaded at once
+     * @param maxRelocations    the maximum amount of dependencies relocated at once
+     * @return a future that will complete exceptionally if any of the dependencies fail to download, relocate or load,
+     * otherwise completes when all dependencies are loaded
+     * @throws IllegalStateException if dependencies have already been queued for download once
+     */
+    public CompletableFuture<Void> pipelineAll(@NotNull List<Repository> repositories, @Nullable IRelocationProvider provider, @NotNull ClasspathAppender classpathAppender, int maxDownloads, int maxRelocations) {
+        PipelineStage downloadStage = new PipelineStage(executor, maxDownloads);
+        PipelineStage relocationStage = new PipelineStage(executor, maxRelocations);
+        if (!step.compareAndSet(0, 3)) {
+            throw new IllegalStateException("Download has already been executed");
+        }
+
+        boolean relocated = provider != null;
+        AtomicBoolean failed = new AtomicBoolean(false);
+        CompletableFuture<Void> loaded = CompletableFuture.completedFuture(null);
+        for (JarMavenObject dependency : dependencies) {
+            CompletableFuture<Void> ready = downloadStage.submit(() -> {
+                checkPipeline(failed);
+                try {
+                    downloadDependency(dependency, repositories);
+                } catch (Throwable t) {
+                    failed.set(true);
+                    throw new RuntimeException("Failed to download dependency " + dependency.getMavenArtifact(), t);
+                }
+            });
+            if (relocated) {
+                ready = ready.thenCompose(result -> relocationStage.submit(() -> {
+                    checkPipeline(failed);
+                    try {
+                        relocateDependency(dependency, provider);
+                    } catch (Throwable t) {
+                        failed.set(true);
+                        throw new RuntimeException("Failed to relocate dependency " + dependency.getMavenArtifact(), t);
+                    }
+                }));
+            }
+
+            // Appended in order, so the classpath does not depend on which download finishes first
+            loaded = loaded.thenCombine(ready, (previous, result) -> {
+                if (jarMerger != null) {
+                    // Merged once all are ready
+                    return null;
+                }
+                try {
+                    loadDependency(dependency, classpathAppender, relocated);
+                } catch (MalformedURLException e) {
+                    throw new RuntimeException("Failed to load dependency " + dependency.getMavenArtifact(), e);
+                }
+                return null;
+            });
+        }
+        if (jarMerger != null) {
+            loaded = loaded.thenRun(() -> {
+                try {
+                    loadMergedDependencies(classpathAppender, relocated);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to load the merged dependencies", e);
+                }
+            });
+        }
+
+        return loaded.whenComplete((result, throwable) -> {
+            saveState();
+            if (throwable == null) {
+                saveLockfile();
+                saveFingerprint(relocated);
+            }
+        });
     }
 
+    /**
+     * Resolves the transitive dependencies of all the dependencies in this {@link DependencyManager} and adds them to it.
+     * Every dependency is only added once, with the version nearest to the declared dependencies.
+     *
+     * @param repositories an ordered list of repositories the poms of dependencies are downloaded from
+     * @return a future that will complete exceptionally if a pom fails to download or parse, otherwise completes when
+     * all transitive dependencies are added
+     * @see DependencyResolver
+     */
     public CompletableFuture<Void> loadTransitives(@NotNull List<Repository> repositories) {
-        return CompletableFuture.allOf(dependencies.stream().map((dep) -> loadTransitive(dep, repositories)).toArray(CompletableFuture[]::new));
+        List<JarMavenObject> roots = new ArrayList<>(dependencies);
+        if (resolutionLockfile != null) {
+            String key = ResolutionLockfile.computeKey(roots, repositories);
+            List<JarMavenObject> locked = resolutionLockfile.load(key);
+            lockKey = key;
+            if (locked != null) {
+                lockedDependencies = addTransitives(locked);
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+
+        return resolveTransitives(roots, repositories).thenAccept(transitives -> {
+            lockedDependencies = transitives;
+            saveLockfile();
+        }).whenComplete((result, throwable) -> saveState());
     }
 
+    /**
+     * Resolves the transitive dependencies of the provided dependency and adds them to this {@link DependencyManager}.
+     *
+     * @param dependency   the dependency
+     * @param repositories an ordered list of repositories the poms of dependencies are downloaded from
+     * @return a future that will complete exceptionally if a pom fails to download or parse, otherwise completes when
+     * all transitive dependencies are added
+     * @see #loadTransitives(List)
+     */
     public CompletableFuture<Void> loadTransitive(@NotNull JarMavenObject dependency, @NotNull List<Repository> repositories) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-        executor.execute(() -> {
+        return resolveTransitives(Collections.singletonList(dependency), repositories).thenApply(transitives -> null);
+    }
+
+    private CompletableFuture<List<JarMavenObject>> resolveTransitives(List<JarMavenObject> roots, List<Repository> repositories) {
+        CompletableFuture<List<JarMavenObject>> future = new CompletableFuture<>();
+        Runnable run = () -> {
+            try {
+                // Shared, so concurrent resolutions retrieve every pom once
+                DependencyResolver resolver = resolvers.computeIfAbsent(repositories, key -> {
+                    EffectivePomBuilder pomBuilder = new EffectivePomBuilder(pom -> getPomModel(pom, repositories), dependencyPathProvider.getMetadataPath("poms"));
+                    return new DependencyResolver(dependency -> {
+                        resolveSnapshot(dependency, repositories);
+                        return pomBuilder.build(dependency.getPom()).getDependencies();
+                    }, (groupId, artifactId) -> getVersions(groupId, artifactId, repositories), executor);
+                });
+                future.complete(addTransitives(resolver.resolve(roots)));
+            } catch (Throwable t) {
+                future.completeExceptionally(new RuntimeException("Failed to download and check pom", t));
+            }
+        };
+
+        if (executor != null) {
+            executor.execute(run);
+        } else {
+            run.run();
+        }
+        return future;
+    }
+
+    /**
+     * Adds the provided dependencies that do not conflict with a known dependency.
+     *
+     * @return the added dependencies
+     */
+    private List<JarMavenObject> addTransitives(List<JarMavenObject> resolved) {
+        Set<String> known = new HashSet<>();
+        for (JarMavenObject dependency : dependencies) {
+            known.add(DependencyResolver.getConflictKey(dependency));
+        }
+        List<JarMavenObject> transitives = new ArrayList<>();
+        for (JarMavenObject dependency : resolved) {
+            if (known.add(DependencyResolver.getConflictKey(dependency))) {
+                transitives.add(dependency);
+            }
+        }
+        addDependencies(transitives);
+        return transitives;
+    }
+
+    /**
+     * Resolves a snapshot dependency without a snapshot version to the latest snapshot in the provided repositories.
+     */
+    private void resolveSnapshot(JarMavenObject mavenObject, List<Repository> repositories) {
+        if (!(mavenObject instanceof SnapshotDependency)) {
+            return;
+        }
+        SnapshotDependency dependency = (SnapshotDependency) mavenObject;
+        synchronized (dependency) {
+            if (dependency.isResolved()) {
+                return;
+            }
+
+            MavenMetadata.SnapshotVersion latest = null;
+            IOException failure = null;
             for (Repository repository : repositories) {
                 try {
-                    PomMavenObject pom = dependency.getPom();
-                    PomManager pomManager = new PomManager(repository, pom, this);
-                    Path dependencyPath = dependencyPathProvider.getDependencyPath(pom, Collections.emptySet());
-                    if (!dependencyPath.toFile().exists()) {
-                        pomManager.downloadPom();
+                    MavenMetadata metadata = metadataCache.getVersionMetadata(repository, dependency);
+                    MavenMetadata.SnapshotVersion snapshotVersion = metadata != null ? metadata.getSnapshotVersion(dependency.getClassifier(), dependency.getType()) : null;
+                    if (snapshotVersion != null && (latest == null || snapshotVersion.isNewerThan(latest))) {
+                        latest = snapshotVersion;
                     }
-                    pomManager.checkPomHash();
-                    PomParser parse = pomManager.parse();
-
-                    List<JarMavenObject> childDependencies = parse.getDependencies();
-                    if (childDependencies.isEmpty()) {
-                        future.complete(null);
-                        return;
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
                     }
-                    addDependencies(childDependencies);
+                }
+            }
 
-                    CompletableFuture<?>[] completableFutures = childDependencies.stream().map((dep) -> loadTransitive(dep, repositories)).toArray(CompletableFuture[]::new);
-                    CompletableFuture<Void> futures = CompletableFuture.allOf(completableFutures);
+            if (latest == null) {
+                throw new IllegalStateException("Failed to resolve snapshot " + dependency.getMavenArtifact() + " from any repository", failure);
+            }
+            System.out.println("Resolved " + dependency.getMavenArtifact() + " to " + latest.getValue());
+            dependency.resolve(latest.getValue());
+        }
+    }
 
-                    futures.whenCompleteAsync((comp, thr) -> future.complete(null));
+    /**
+     * Gets the versions of the provided artifact that are available in any of the provided repositories.
+     */
+    private List<String> getVersions(String groupId, String artifactId, List<Repository> repositories) throws IOException {
+        Set<String> versions = new LinkedHashSet<>();
+        boolean found = false;
+        IOException failure = null;
+        for (Repository repository : repositories) {
+            try {
+                MavenMetadata metadata = metadataCache.getArtifactMetadata(repository, groupId, artifactId);
+                if (metadata != null) {
+                    versions.addAll(metadata.getVersions());
+                    found = true;
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
 
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to download and check pom", e);
+        if (!found && failure != null) {
+            throw failure;
+        }
+        return new ArrayList<>(versions);
+    }
+
+    private PomModel getPomModel(PomMavenObject pom, List<Repository> repositories) {
+        Path pomPath = dependencyPathProvider.getDependencyPath(pom, Collections.emptySet());
+        Path pomHashPath = dependencyPathProvider.getDependencyHashPath(pom);
+        boolean concurrent = repositoryStrategy.isConcurrent();
+        AtomicBoolean published = new AtomicBoolean(false);
+        return repositoryStrategy.select(pom, repositories, repository -> {
+            PomManager pomManager = new PomManager(repository, pom, this);
+            if (Files.exists(pomPath) && (pom.getHash() != null || Files.exists(pomHashPath)) && pomManager.checkPomHash(pomPath, pomHashPath)) {
+                return pomManager.parseModel(pomPath);
+            }
+
+            // The pom and its hash are downloaded into part files and only moved into place once verified,
+            // concurrent attempts each get their own part files so they never touch the files another attempt is reading
+            String suffix = concurrent ? "." + Integer.toHexString(repository.getHost().hashCode()) + ".part" : ".part";
+            PartFile pomPart = new PartFile(pomPath, pomPath.resolveSibling(pomPath.getFileName() + suffix));
+            PartFile hashPart = new PartFile(pomHashPath, pomHashPath.resolveSibling(pomHashPath.getFileName() + suffix));
+            try {
+                checkMissing(repository, pom);
+                try {
+                    pomManager.downloadPom(pomPart.getPath());
+                } catch (RuntimeException e) {
+                    recordFailure(repository, pom, e);
+                    throw e;
                 }
+                if (!pomManager.checkPomHash(pomPart.getPath(), hashPart.getPath())) {
+                    throw new IllegalStateException("Failed to verify pom (" + pom + ")'s hash");
+                }
+                PomModel model = pomManager.parseModel(pomPart.getPath());
+
+                synchronized (published) {
+                    if (!published.get()) {
+                        if (Files.exists(hashPart.getPath())) {
+                            hashPart.publish();
+                        }
+                        pomPart.publish();
+                        published.set(true);
+                    }
+                }
+                return model;
+            } finally {
+                pomPart.discard();
+                hashPart.discard();
             }
         });
-        return future;
     }
 
     /**
@@ -351,6 +928,9 @@ public class DependencyManager {
         }
         step.set(3);
 
+        if (jarMerger != null) {
+            return loadMerged(classpathAppender, currentStep == 2);
+        }
         return forEachDependency(dependency -> loadDependency(dependency, classpathAppender, currentStep == 2), (dependency, cause) -> new RuntimeException("Failed to load dependency " + dependency.getMavenArtifact(), cause));
     }
 
@@ -421,10 +1001,9 @@ public class DependencyManager {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private CompletableFuture<Void>[] forEachDependency(ExceptionalConsumer<JarMavenObject> runnable, BiFunction<JarMavenObject, Throwable, Throwable> dependencyException) {
         int size = dependencies.size();
-        CompletableFuture<Void>[] futures = new CompletableFuture[size];
+        CompletableFuture<Void>[] futures = newFutureArray(size);
 
         for (int index = 0; index < size; index++) {
             JarMavenObject mavenObject = dependencies.get(index);
@@ -456,6 +1035,7 @@ public class DependencyManager {
     }
 
     private void downloadDependency(JarMavenObject jarDependency, List<Repository> repositories) throws IOException, NoSuchAlgorithmException {
+        resolveSnapshot(jarDependency, repositories);
         Path dependencyPath = getPathForDependency(jarDependency, false);
         Path dependencyHashPath = dependencyPathProvider.getDependencyHashPath(jarDependency);
 
@@ -463,93 +1043,379 @@ public class DependencyManager {
             Files.createDirectories(dependencyPath.getParent());
         }
 
-        if (Files.exists(dependencyPath) && Files.exists(dependencyHashPath)) {
-            if (checkDependencyHash(jarDependency, null)) {
+        String algorithm = jarDependency.getHashingAlgorithm();
+        if (Files.exists(dependencyPath) && (jarDependency.getHash() != null || Files.exists(dependencyHashPath))) {
+            if (verificationManifest != null && verificationManifest.isVerified(dependencyPath, algorithm, jarDependency.getHash())) {
+                // This dependency was verified before and has not changed since
+                String verifiedHash = verificationManifest.getVerifiedHash(dependencyPath, algorithm);
+                if (verifiedHash != null) {
+                    verifiedHashes.put(jarDependency, verifiedHash);
+                }
+                return;
+            }
+
+            String fileHash = HashUtils.getFileHash(dependencyPath, algorithm);
+            if (checkDependencyHash(jarDependency, null, fileHash)) {
                 // This dependency is already downloaded & the hash matches
+                recordVerified(jarDependency, dependencyPath, algorithm, fileHash);
                 return;
             } else {
                 Files.delete(dependencyPath);
+                if (verificationManifest != null) {
+                    verificationManifest.remove(dependencyPath);
+                }
             }
         }
         Files.deleteIfExists(dependencyPath);
-        Files.createFile(dependencyPath);
 
-        RuntimeException failure = new RuntimeException("All provided repositories failed to download dependency");
-        for (Repository repository : repositories) {
+        // Downloads go into a part file that is kept across failures, so the next attempt can resume it
+        PartFile sharedPartFile = new PartFile(dependencyPath);
+        boolean concurrent = repositoryStrategy.isConcurrent();
+        AtomicBoolean published = new AtomicBoolean(false);
+        repositoryStrategy.select(jarDependency, repositories, repository -> {
+            // Concurrent attempts each get their own part file
+            PartFile partFile = concurrent
+                    ? new PartFile(dependencyPath, dependencyPath.resolveSibling(dependencyPath.getFileName() + "." + Integer.toHexString(repository.getHost().hashCode()) + ".part"))
+                    : sharedPartFile;
             try {
-                MessageDigest digest = MessageDigest.getInstance(jarDependency.getHashingAlgorithm());
-                downloadFromRepository(jarDependency, repository, dependencyPath, digest);
+                checkMissing(repository, jarDependency);
+                MessageDigest digest = MessageDigest.getInstance(algorithm);
+                String fileHash;
+                try {
+                    fileHash = downloadFromRepository(jarDependency, repository, partFile, digest);
+                } catch (RuntimeException e) {
+                    recordFailure(repository, jarDependency, e);
+                    throw e;
+                }
 
-                if (!checkDependencyHash(jarDependency, repository)) {
+                if (!checkDependencyHash(jarDependency, repository, fileHash)) {
+                    partFile.discard();
+                    invalidateLockfile(jarDependency);
                     throw new RuntimeException("Failed to verify dependency (" + jarDependency + ")'s hash");
                 }
 
-                // Success
-                return;
-            } catch (Throwable e) {
-                Files.deleteIfExists(dependencyPath);
-                failure.addSuppressed(e);
+                synchronized (published) {
+                    if (published.get()) {
+                        // Another repository won the race
+                        partFile.discard();
+                    } else {
+                        partFile.publish();
+                        published.set(true);
+                        recordVerified(jarDependency, dependencyPath, algorithm, fileHash);
+                    }
+                }
+                return null;
+            } catch (Throwable t) {
+                if (concurrent) {
+                    partFile.discard();
+                }
+                throw t;
             }
-        }
-        throw failure;
+        });
     }
 
-    private void downloadFromRepository(JarMavenObject mavenObject, Repository repository, Path dependencyPath, MessageDigest digest) {
+    private String downloadFromRepository(JarMavenObject mavenObject, Repository repository, PartFile partFile, MessageDigest digest) {
         try {
-            downloader.downloadFile(repository.createURL(mavenObject), dependencyPath);
-            byte[] buffer = new byte[4096];
-            int length;
-            try (FileInputStream fileInputStream = new FileInputStream(dependencyPath.toFile())) {
-                while ((length = fileInputStream.read(buffer)) != -1) {
-                    digest.update(buffer, 0, length);
-                }
-            }
+            downloader.downloadFile(repository.createURL(mavenObject), partFile, digest);
+            return HashUtils.getHash(digest);
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to download dependency " + mavenObject + " from " + repository);
+            throw new IllegalStateException("Failed to download dependency " + mavenObject + " from " + repository, e);
         }
     }
 
-    private String downloadHashFromRepository(JarMavenObject mavenObject, Repository repository, Path path) {
+    private String downloadHashFromRepository(JarMavenObject mavenObject, Repository repository, PartFile partFile) {
         try {
-            downloader.downloadFile(repository.createHashURL(mavenObject), path);
-            return HashUtils.readFile(path);
+            downloader.downloadFile(repository.createHashURL(mavenObject), partFile.getPath());
+            return HashUtils.readFile(partFile.getPath());
         } catch (IOException e) {
             throw new IllegalStateException("Failed to download dependency " + mavenObject + " from " + repository);
         }
     }
 
-    private boolean checkDependencyHash(JarMavenObject mavenObject, Repository repo) throws NoSuchAlgorithmException, IOException {
-        String fileHash = HashUtils.getFileHash(getPathForDependency(mavenObject, false), mavenObject.getHashingAlgorithm());
+    private boolean checkDependencyHash(JarMavenObject mavenObject, Repository repo, String fileHash) throws IOException {
         if (mavenObject.getHash() != null) {
             return fileHash.equals(mavenObject.getHash());
         } else {
-            Path hashPath = Paths.get(mavenObject.getHashFileName());
+            Path hashPath = dependencyPathProvider.getDependencyHashPath(mavenObject);
             if (hashPath.toFile().exists()) {
-                return fileHash.equals(HashUtils.readFile(hashPath));
+                if (fileHash.equals(HashUtils.readFile(hashPath))) {
+                    return true;
+                }
+                // The cached hash may be stale, it is downloaded again instead of failing every following attempt
+                if (repo == null) {
+                    Files.deleteIfExists(hashPath);
+                    return false;
+                }
             }
             if (repo == null)
                 throw new IllegalArgumentException("Hash file should be downloaded, but repository is null");
-            String hash = downloadHashFromRepository(mavenObject, repo, dependencyPathProvider.getDependencyHashPath(mavenObject));
-            return fileHash.equals(hash);
+
+            // Downloaded next to the hash file and only moved into place if it matches, so concurrent attempts never
+            // overwrite or remove the hash file another attempt is reading
+            PartFile partFile = new PartFile(hashPath, hashPath.resolveSibling(hashPath.getFileName() + "." + Integer.toHexString(repo.getHost().hashCode()) + ".part"));
+            try {
+                String hash = downloadHashFromRepository(mavenObject, repo, partFile);
+                if (!fileHash.equals(hash)) {
+                    return false;
+                }
+                partFile.publish();
+                return true;
+            } finally {
+                partFile.discard();
+            }
+        }
+    }
+
+    private void checkMissing(Repository repository, MavenObject mavenObject) throws FileNotFoundException {
+        if (negativeLookupCache != null) {
+            negativeLookupCache.checkMissing(repository, mavenObject);
         }
     }
 
-    private void relocateDependency(JarMavenObject mavenObject, IRelocationProvider helper) {
+    private void recordFailure(Repository repository, MavenObject mavenObject, Throwable failure) {
+        if (negativeLookupCache != null) {
+            negativeLookupCache.recordFailure(repository, mavenObject, failure);
+        }
+    }
+
+    private void recordVerified(JarMavenObject mavenObject, Path path, String algorithm, String hash) throws IOException {
+        verifiedHashes.put(mavenObject, hash);
+        if (verificationManifest != null) {
+            verificationManifest.record(path, algorithm, hash);
+        }
+    }
+
+    private void saveLockfile() {
+        String key = lockKey;
+        List<JarMavenObject> locked = lockedDependencies;
+        if (resolutionLockfile == null || key == null || locked == null) {
+            return;
+        }
+
+        List<String> hashes = new ArrayList<>(locked.size());
+        for (JarMavenObject dependency : locked) {
+            hashes.add(dependency.getHash() != null ? dependency.getHash() : verifiedHashes.get(dependency));
+        }
+        try {
+            resolutionLockfile.save(key, locked, hashes);
+        } catch (IOException ignored) {
+            // The next start resolves the dependencies again
+        }
+    }
+
+    private void invalidateLockfile(JarMavenObject mavenObject) {
+        List<JarMavenObject> locked = lockedDependencies;
+        if (resolutionLockfile == null || locked == null || !locked.contains(mavenObject)) {
+            return;
+        }
+
+        // Don't write the failing resolution again
+        lockKey = null;
+        try {
+            resolutionLockfile.invalidate();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void saveState() {
+        try {
+            repositoryStrategy.save();
+            if (negativeLookupCache != null) {
+                negativeLookupCache.save();
+            }
+            if (verificationManifest != null) {
+                verificationManifest.save();
+            }
+        } catch (IOException ignored) {
+            // The saved state only speeds up later starts, failing to persist it does not fail the download
+        }
+    }
+
+    private static void checkPipeline(AtomicBoolean failed) {
+        if (failed.get()) {
+            // Don't need to bother with the rest if one fails
+            throw new IllegalStateException("Another dependency failed");
+        }
+    }
+
+    private void saveFingerprint(boolean relocated) {
+        String fingerprint = this.fingerprint;
+        if (classpathFingerprint == null || fingerprint == null || relocated != fingerprintRelocated) {
+            // The fingerprint is of loading the other (relocated or downloaded) dependencies
+            return;
+        }
+
+        List<Path> classpath = new ArrayList<>(dependencies.size());
+        if (jarMerger != null) {
+            classpath.add(jarMerger.getJar());
+        } else {
+            for (JarMavenObject dependency : dependencies) {
+                classpath.add(getPathForDependency(dependency, relocated));
+            }
+        }
+        try {
+            classpathFingerprint.save(fingerprint, classpath);
+        } catch (IOException ignored) {
+            // The next start goes through every step again
+        }
+    }
+
+    private void relocateDependency(JarMavenObject mavenObject, IRelocationProvider helper) throws IOException {
 
         Path dependencyFile = getPathForDependency(mavenObject, false);
         Path relocatedFile = getPathForDependency(mavenObject, true);
 
-        if (!relocatedFile.toFile().exists()) {
-            helper.run(dependencyFile, relocatedFile, relocations);
+        if (relocationCache != null) {
+            String artifact = mavenObject.getGroupId() + ":" + mavenObject.getArtifactId()
+                    + (mavenObject.getClassifier() != null ? ":" + mavenObject.getClassifier() : "");
+            Path cachedFile = relocationCache.relocate(dependencyFile, getFileHash(mavenObject, dependencyFile), relocations, helper, artifact);
+            if (!isCopyOf(cachedFile, relocatedFile)) {
+                linkOrCopy(cachedFile, relocatedFile);
+                recordCopy(cachedFile, relocatedFile);
+            }
+            return;
+        }
+
+        // Relocated files are moved into place once complete, so an existing file is never partially written
+        if (relocatedFile.toFile().exists()) {
+            return;
+        }
+        if (RelocationScanner.isAffected(dependencyFile, relocations)) {
+            Path temporary = getTemporaryPath(relocatedFile);
+            try {
+                helper.run(dependencyFile, temporary, relocations);
+                FileUtils.move(temporary, relocatedFile);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } else {
+            // None of the relocations apply, the relocated jar would be the same
+            linkOrCopy(dependencyFile, relocatedFile);
+        }
+    }
+
+    private String getFileHash(JarMavenObject mavenObject, Path path) throws IOException {
+        String verifiedHash = verifiedHashes.get(mavenObject);
+        if (verifiedHash != null) {
+            return mavenObject.getHashingAlgorithm() + ":" + verifiedHash;
+        }
+        try {
+            return "SHA-256:" + HashUtils.getFileHash(path, "SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Checks if the target is a link to, or an unchanged copy of, the source.
+     * Copies are recorded in a {@code .source} file next to them, as comparing their contents would read both files on every start.
+     */
+    private static boolean isCopyOf(Path source, Path target) throws IOException {
+        if (!Files.exists(target)) {
+            return false;
+        }
+        if (Files.isSameFile(source, target)) {
+            // Linked
+            return true;
+        }
+
+        Path sourceFile = target.resolveSibling(target.getFileName() + ".source");
+        if (!Files.exists(sourceFile)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(sourceFile)) {
+            properties.load(inputStream);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // The cached jars are named by their cache key, so the same path with the same attributes is the same jar
+        return source.toAbsolutePath().toString().equals(properties.getProperty("source"))
+                && attributes(source).equals(properties.getProperty("sourceAttributes"))
+                && attributes(target).equals(properties.getProperty("attributes"));
+    }
+
+    private static void recordCopy(Path source, Path target) throws IOException {
+        Path sourceFile = target.resolveSibling(target.getFileName() + ".source");
+        if (Files.isSameFile(source, target)) {
+            Files.deleteIfExists(sourceFile);
+            return;
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("source", source.toAbsolutePath().toString());
+        properties.setProperty("sourceAttributes", attributes(source));
+        properties.setProperty("attributes", attributes(target));
+        FileUtils.store(sourceFile, properties, "Copied from");
+    }
+
+    private static String attributes(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.size() + "," + attributes.lastModifiedTime().toMillis();
+    }
+
+    private static void linkOrCopy(Path from, Path to) throws IOException {
+        Path temporary = getTemporaryPath(to);
+        try {
+            try {
+                Files.createLink(temporary, from);
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                Files.copy(from, temporary);
+            }
+            FileUtils.move(temporary, to);
+        } finally {
+            Files.deleteIfExists(temporary);
         }
     }
 
+    private static Path getTemporaryPath(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+        Files.deleteIfExists(temporary);
+        return temporary;
+    }
+
     private void loadDependency(JarMavenObject mavenObject, ClasspathAppender classpathAppender, boolean relocated) throws MalformedURLException {
         Path fileToLoad = relocated ? getPathForDependency(mavenObject, true) : getPathForDependency(mavenObject, false);
 
         classpathAppender.appendFileToClasspath(fileToLoad);
     }
 
+    private CompletableFuture<Void>[] loadMerged(ClasspathAppender classpathAppender, boolean relocated) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable run = () -> {
+            try {
+                loadMergedDependencies(classpathAppender, relocated);
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(new RuntimeException("Failed to load the merged dependencies", t));
+            }
+        };
+
+        if (executor != null) {
+            executor.execute(run);
+        } else {
+            run.run();
+        }
+        CompletableFuture<Void>[] futures = newFutureArray(1);
+        futures[0] = future;
+        return futures;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Void>[] newFutureArray(int size) {
+        // Generic arrays cannot be created, the array only ever holds CompletableFuture<Void>s
+        return (CompletableFuture<Void>[]) new CompletableFuture<?>[size];
+    }
+
+    private void loadMergedDependencies(ClasspathAppender classpathAppender, boolean relocated) throws IOException {
+        List<Path> jars = new ArrayList<>(dependencies.size());
+        for (JarMavenObject dependency : dependencies) {
+            jars.add(getPathForDependency(dependency, relocated));
+        }
+        classpathAppender.appendFileToClasspath(jarMerger.merge(jars));
+    }
+
     /**
      * Helper class to provide a Consumer that throws {@link Throwable}.
      *
@@ -0,0 +1,76 @@
+package cc.maxmc.dependencydownload;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A stage of the pipelined mode of the {@link DependencyManager}, which runs at most {@code maxConcurrency} tasks
+ * on the executor at once. Tasks over the limit are queued instead of blocking executor threads.
+ */
+final class PipelineStage {
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private int running = 0;
+
+    PipelineStage(Executor executor, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("A stage needs to run at least one task at once");
+        }
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    CompletableFuture<Void> submit(Task task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable run = () -> {
+            try {
+                task.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                next();
+            }
+        };
+
+        synchronized (this) {
+            if (running >= maxConcurrency) {
+                queue.add(run);
+                return future;
+            }
+            running++;
+        }
+        execute(run);
+        return future;
+    }
+
+    private void next() {
+        Runnable run;
+        synchronized (this) {
+            run = queue.poll();
+            if (run == null) {
+                running--;
+                return;
+            }
+        }
+        execute(run);
+    }
+
+    private void execute(Runnable run) {
+        if (executor != null) {
+            executor.execute(run);
+        } else {
+            run.run();
+        }
+    }
+
+    @FunctionalInterface
+    interface Task {
+
+        void run() throws Throwable;
+    }
+}
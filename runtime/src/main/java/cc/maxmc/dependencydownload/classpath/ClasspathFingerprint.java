@@ -0,0 +1,199 @@
+package cc.maxmc.dependencydownload.classpath;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.path.DependencyPathProvider;
+import cc.maxmc.dependencydownload.relocation.JarMerger;
+import cc.maxmc.dependencydownload.relocation.Relocation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The classpath of the last successful start, stored together with a fingerprint of the configuration that produced it.
+ * <p>
+ * The fingerprint covers the dependencies (including their hashes), the relocations, the paths the
+ * {@link DependencyPathProvider} gives the dependencies, whether the relocated or the downloaded dependencies are loaded and
+ * whether (and how) they are merged into a single jar. When the next start has the same fingerprint and all stored
+ * files still have the same size and last modified time, the stored classpath can be appended without downloading,
+ * verifying or relocating anything.
+ */
+@SuppressWarnings("unused") // API
+public class ClasspathFingerprint {
+
+    private final Path file;
+
+    /**
+     * Creates a {@link ClasspathFingerprint}.
+     *
+     * @param file the file to store the classpath in
+     * @see DependencyPathProvider#getMetadataPath(String)
+     */
+    public ClasspathFingerprint(@NotNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Computes the fingerprint of the provided configuration.
+     *
+     * @param dependencies the dependencies, in order
+     * @param relocations  the relocations
+     * @param pathProvider the path provider the dependencies are stored with
+     * @return the fingerprint
+     */
+    @NotNull
+    public static String compute(@NotNull List<JarMavenObject> dependencies, @NotNull Set<Relocation> relocations, @NotNull DependencyPathProvider pathProvider) {
+        return compute(dependencies, relocations, pathProvider, null, !relocations.isEmpty());
+    }
+
+    /**
+     * Computes the fingerprint of the provided configuration.
+     *
+     * @param dependencies the dependencies, in order
+     * @param relocations  the relocations
+     * @param pathProvider the path provider the dependencies are stored with
+     * @param jarMerger    the jar merger the dependencies are merged with, or {@code null} if they are loaded separately
+     * @param relocated    if the relocated dependencies are loaded, rather than the dependencies as downloaded
+     * @return the fingerprint
+     */
+    @NotNull
+    public static String compute(@NotNull List<JarMavenObject> dependencies, @NotNull Set<Relocation> relocations,
+                                 @NotNull DependencyPathProvider pathProvider, @Nullable JarMerger jarMerger, boolean relocated) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        // Sorted, so the same relocations added in a different order have the same fingerprint
+        TreeSet<String> sortedRelocations = new TreeSet<>();
+        for (Relocation relocation : relocations) {
+            sortedRelocations.add(relocation.getCanonicalForm());
+        }
+        for (String relocation : sortedRelocations) {
+            update(digest, "relocation", relocation);
+        }
+
+        update(digest, "provider", pathProvider.getClass().getName());
+        update(digest, "load", relocated ? "relocated" : "downloaded");
+        if (jarMerger != null) {
+            update(digest, "merged", jarMerger.getJar().toAbsolutePath() + ":" + jarMerger.getDuplicatePolicy().name());
+        } else {
+            update(digest, "merged", "none");
+        }
+        for (JarMavenObject dependency : dependencies) {
+            update(digest, "dependency", dependency.getType() + ":" + dependency.getMavenArtifact() + ":" + dependency.getSnapshotVersion());
+            update(digest, "hash", dependency.getHashingAlgorithm() + ":" + dependency.getHash());
+            update(digest, "path", pathProvider.getDependencyPath(dependency, Collections.emptySet()).toAbsolutePath().toString());
+            update(digest, "relocated", pathProvider.getDependencyPath(dependency, relocations).toAbsolutePath().toString());
+        }
+        return HashUtils.getHash(digest);
+    }
+
+    /**
+     * Gets the stored classpath if it was stored with the provided fingerprint and none of its files changed since.
+     *
+     * @param fingerprint the fingerprint of the current configuration
+     * @return the ordered classpath or {@code null} if it cannot be used
+     * @see #compute(List, Set, DependencyPathProvider, JarMerger, boolean)
+     */
+    @Nullable
+    public List<Path> getClasspath(@NotNull String fingerprint) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!fingerprint.equals(properties.getProperty("fingerprint"))) {
+            return null;
+        }
+
+        try {
+            int count = Integer.parseInt(properties.getProperty("count", "-1"));
+            if (count < 0) {
+                return null;
+            }
+            List<Path> classpath = new ArrayList<>(count);
+            for (int index = 0; index < count; index++) {
+                String path = properties.getProperty("path." + index);
+                String attributes = properties.getProperty("attributes." + index);
+                if (path == null || attributes == null) {
+                    return null;
+                }
+
+                Path classpathFile = Paths.get(path);
+                if (!attributes.equals(attributes(classpathFile))) {
+                    // The file was changed or removed since the classpath was stored
+                    return null;
+                }
+                classpath.add(classpathFile);
+            }
+            return classpath;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the provided classpath with the provided fingerprint.
+     *
+     * @param fingerprint the fingerprint of the configuration that produced the classpath
+     * @param classpath   the ordered classpath
+     * @throws IOException if reading the attributes of the classpath files or writing the file fails
+     */
+    public void save(@NotNull String fingerprint, @NotNull List<Path> classpath) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fingerprint", fingerprint);
+        properties.setProperty("count", String.valueOf(classpath.size()));
+        for (int index = 0; index < classpath.size(); index++) {
+            Path path = classpath.get(index).toAbsolutePath();
+            properties.setProperty("path." + index, path.toString());
+            properties.setProperty("attributes." + index, attributes(path));
+        }
+
+        FileUtils.store(file, properties, "Classpath of the last successful start");
+    }
+
+    /**
+     * Removes the stored classpath, so the next start goes through every step again.
+     *
+     * @throws IOException if deleting the file fails
+     */
+    public void invalidate() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static String attributes(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.size() + "," + attributes.lastModifiedTime().toMillis();
+    }
+
+    private static void update(MessageDigest digest, String key, String value) {
+        digest.update(key.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -26,7 +26,8 @@ public class ReleaseDependency extends JarMavenObject {
 
     @Override
     public PomMavenObject getPom() {
-        return new ReleasePom(getGroupId(), getArtifactId(), getVersion(), getClassifier(), getHash(), getHashingAlgorithm());
+        // The hash and classifier belong to the jar, the pom is verified with its own hash file
+        return new ReleasePom(getGroupId(), getArtifactId(), getVersion(), null);
     }
 
     @Override
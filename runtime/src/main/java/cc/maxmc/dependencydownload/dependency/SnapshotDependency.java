@@ -5,9 +5,17 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Objects;
 
+/**
+ * A snapshot dependency, stored and downloaded with its timestamped snapshot version.
+ * <p>
+ * Snapshot dependencies created without a snapshot version are resolved to the latest snapshot version in the repositories'
+ * {@code maven-metadata.xml} by the {@link cc.maxmc.dependencydownload.DependencyManager} before they are used.
+ */
 public class SnapshotDependency extends JarMavenObject {
 
     private final String snapshotVersion;
+    // Not part of the identity, so a dependency stays the same key in maps and sets once it is resolved
+    private volatile String resolvedSnapshotVersion;
 
     public SnapshotDependency(String mavenDependency, String snapshotVersion) {
         super(mavenDependency, null, "md5", DependencyScope.COMPILE);
@@ -29,14 +37,43 @@ public class SnapshotDependency extends JarMavenObject {
         this.snapshotVersion = snapshotVersion;
     }
 
+    public SnapshotDependency(String groupId, String artifactId, String version, String classifier, String snapshotVersion, String hash, String hashingAlgorithm, DependencyScope scope) {
+        super(groupId, artifactId, version, classifier, hash, hashingAlgorithm, scope);
+        this.snapshotVersion = snapshotVersion;
+    }
+
     @Override
     public PomMavenObject getPom() {
-        return new SnapshotPom(getGroupId(), getArtifactId(), getVersion(), getSnapshotVersion(), getClassifier(), getHash(), getHashingAlgorithm());
+        // The hash and classifier belong to the jar, the pom is verified with its own hash file
+        return new SnapshotPom(getGroupId(), getArtifactId(), getVersion(), getSnapshotVersion(), null);
     }
 
     @Override
     public String getSnapshotVersion() {
-        return snapshotVersion;
+        return snapshotVersion != null ? snapshotVersion : resolvedSnapshotVersion;
+    }
+
+    /**
+     * If the timestamped snapshot version of this dependency is known.
+     *
+     * @return true if this dependency has a snapshot version
+     */
+    public boolean isResolved() {
+        return getSnapshotVersion() != null;
+    }
+
+    /**
+     * Sets the timestamped snapshot version of a dependency that was created without one.
+     * This changes the file name of this dependency, but not its equality and hash code.
+     *
+     * @param snapshotVersion the timestamped snapshot version
+     * @throws IllegalStateException if this dependency already has a snapshot version
+     */
+    public synchronized void resolve(@NotNull String snapshotVersion) {
+        if (isResolved()) {
+            throw new IllegalStateException("Snapshot " + getMavenArtifact() + " is already resolved");
+        }
+        this.resolvedSnapshotVersion = snapshotVersion;
     }
 
     @Override
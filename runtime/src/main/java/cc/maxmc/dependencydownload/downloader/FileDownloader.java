@@ -1,8 +1,11 @@
 package cc.maxmc.dependencydownload.downloader;
 
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 
 /**
  * Used to download dependencies and other files.
@@ -18,4 +21,37 @@ public interface FileDownloader {
      * @throws IOException if file download failed.
      */
     void downloadFile(URL url, Path target) throws IOException;
+
+    /**
+     * Downloads a single file, updating the provided {@link MessageDigest} with every byte written to the target.
+     * <p>
+     * The default implementation downloads the file with {@link #downloadFile(URL, Path)} and reads it back afterwards,
+     * implementations should override this to update the digest while the file is being written.
+     *
+     * @param url    url of the file to download.
+     * @param target where to download the file.
+     * @param digest the digest to update with the downloaded bytes.
+     * @throws IOException if file download failed.
+     */
+    default void downloadFile(URL url, Path target, MessageDigest digest) throws IOException {
+        downloadFile(url, target);
+        HashUtils.updateDigest(digest, target);
+    }
+
+    /**
+     * Downloads a single file into the provided {@link PartFile}, continuing after the bytes that were already
+     * written by a previous attempt if the implementation and the server support it.
+     * The provided {@link MessageDigest} is updated with the complete contents of the file.
+     * <p>
+     * The default implementation discards the part file and downloads the file from the start.
+     *
+     * @param url      url of the file to download.
+     * @param partFile where to download the file.
+     * @param digest   the digest to update with the contents of the file.
+     * @throws IOException if file download failed, the bytes written so far are kept for the next attempt.
+     */
+    default void downloadFile(URL url, PartFile partFile, MessageDigest digest) throws IOException {
+        partFile.discard();
+        downloadFile(url, partFile.getPath(), digest);
+    }
 }
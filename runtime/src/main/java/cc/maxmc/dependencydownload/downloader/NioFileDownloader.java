@@ -0,0 +1,122 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@link SingleThreadFileDownloader} that copies the response body with NIO channels.
+ * <p>
+ * Files from {@code file:} urls (for example local repositories) are copied with
+ * {@link FileChannel#transferFrom(ReadableByteChannel, long, long)} when no digest is requested, letting the operating system
+ * copy the bytes without them entering the heap. Other bodies are read straight into the array of a pooled heap {@link ByteBuffer},
+ * which updates the digest and is then written to the file, so no buffers are allocated per download.
+ */
+@SuppressWarnings("unused") // API
+public class NioFileDownloader extends SingleThreadFileDownloader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 16;
+    private static final Queue<ByteBuffer> BUFFERS = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void downloadFile(URL url, Path target) throws IOException {
+        Path source = getLocalPath(url);
+        if (source == null) {
+            super.downloadFile(url, target);
+            return;
+        }
+
+        System.out.println("Downloading " + url);
+        target.toFile().getParentFile().mkdirs();
+        try (FileChannel sourceChannel = FileChannel.open(source);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transferFrom(sourceChannel, channel);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(url.toString());
+        }
+    }
+
+    @Override
+    protected void transfer(InputStream inputStream, FileChannel channel, @Nullable MessageDigest digest, @Nullable ProgressListener listener) throws IOException {
+        ByteBuffer buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        try {
+            // Read into the backing array directly, a channel over the stream would copy through a second array
+            byte[] array = buffer.array();
+            long unrecorded = 0;
+            int total;
+            while ((total = inputStream.read(array)) != -1) {
+                checkInterrupted();
+                if (digest != null) {
+                    digest.update(array, 0, total);
+                }
+                buffer.clear();
+                buffer.limit(total);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                unrecorded += total;
+                if (listener != null && unrecorded >= PROGRESS_INTERVAL) {
+                    channel.force(false);
+                    listener.written(channel.position());
+                    unrecorded = 0;
+                }
+            }
+
+            if (listener != null) {
+                channel.force(false);
+                listener.written(channel.position());
+            }
+        } finally {
+            if (BUFFERS.size() < MAX_POOLED_BUFFERS) {
+                buffer.clear();
+                BUFFERS.offer(buffer);
+            }
+        }
+    }
+
+    /**
+     * Gets the file a {@code file:} url points to.
+     *
+     * @return the file, or {@code null} if the url is not a {@code file:} url of the default file system
+     */
+    @Nullable
+    private static Path getLocalPath(URL url) {
+        if (!"file".equalsIgnoreCase(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void transferFrom(FileChannel source, FileChannel channel) throws IOException {
+        long position = 0;
+        long transferred;
+        while ((transferred = channel.transferFrom(source, position, PROGRESS_INTERVAL)) > 0) {
+            checkInterrupted();
+            position += transferred;
+        }
+    }
+}
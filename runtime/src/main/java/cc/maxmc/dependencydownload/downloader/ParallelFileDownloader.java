@@ -0,0 +1,321 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link FileDownloader} that splits large files into byte ranges which are downloaded concurrently
+ * and written at their offsets into the target file.
+ * <p>
+ * Only jars are probed for their size, other files, files smaller than the threshold, files of unknown size and files on
+ * servers that do not advertise {@code Accept-Ranges: bytes} are downloaded as a single stream with a {@link SingleThreadFileDownloader}.
+ * <p>
+ * Unless an executor is provided, the ranges are downloaded on threads owned by the downloader, which are stopped by {@link #close()}.
+ */
+@SuppressWarnings("unused") // API
+public class ParallelFileDownloader implements FileDownloader, Closeable {
+
+    /**
+     * The default size from which files are downloaded in parallel, 4 MiB.
+     */
+    public static final long DEFAULT_THRESHOLD = 4L * 1024 * 1024;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final FileDownloader fallback = new SingleThreadFileDownloader();
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final int parallelism;
+    private final long threshold;
+
+    /**
+     * Creates a {@link ParallelFileDownloader} using 4 ranges per file and the {@link #DEFAULT_THRESHOLD}.
+     */
+    public ParallelFileDownloader() {
+        this(4, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a {@link ParallelFileDownloader}.
+     *
+     * @param parallelism the amount of ranges a file is split into
+     * @param threshold   the minimum file size in bytes for a file to be downloaded in parallel
+     */
+    public ParallelFileDownloader(int parallelism, long threshold) {
+        this(parallelism, threshold, Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "DependencyDownload-Range-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /**
+     * Creates a {@link ParallelFileDownloader} that downloads the ranges on the provided executor, which is not shut down by {@link #close()}.
+     *
+     * @param parallelism the amount of ranges a file is split into
+     * @param threshold   the minimum file size in bytes for a file to be downloaded in parallel
+     * @param executor    the executor to download the ranges on
+     */
+    public ParallelFileDownloader(int parallelism, long threshold, @NotNull Executor executor) {
+        this(parallelism, threshold, executor, false);
+    }
+
+    private ParallelFileDownloader(int parallelism, long threshold, Executor executor, boolean ownsExecutor) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Stops the threads of the downloader, unless it was created with an executor.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    @Override
+    public void downloadFile(URL url, Path target) throws IOException {
+        Probe probe = probe(url);
+        if (probe == null) {
+            fallback.downloadFile(url, target);
+            return;
+        }
+        downloadRanges(url, target, probe, null);
+    }
+
+    @Override
+    public void downloadFile(URL url, Path target, MessageDigest digest) throws IOException {
+        Probe probe = probe(url);
+        if (probe == null) {
+            fallback.downloadFile(url, target, digest);
+            return;
+        }
+        // Ranges arrive out of order, so the digest can only be computed once the file is complete
+        downloadRanges(url, target, probe, null);
+        HashUtils.updateDigest(digest, target);
+    }
+
+    /**
+     * Downloads the file into the part file, in parallel if the part file has no progress yet.
+     * <p>
+     * If a parallel download fails, the progress is recorded up to the first byte that was not downloaded, so the next attempt
+     * resumes the part file from there as a single stream with the {@link SingleThreadFileDownloader}.
+     */
+    @Override
+    public void downloadFile(URL url, PartFile partFile, MessageDigest digest) throws IOException {
+        Probe probe = partFile.getVerifiedLength() > 0 ? null : probe(url);
+        if (probe == null) {
+            fallback.downloadFile(url, partFile, digest);
+            return;
+        }
+        downloadRanges(url, partFile.getPath(), probe, partFile);
+        partFile.setProgress(probe.length, probe.validator);
+        HashUtils.updateDigest(digest, partFile.getPath());
+    }
+
+    /**
+     * Probes the size of a jar with a {@code HEAD} request, other files (like hashes and poms) are too small to be worth it.
+     *
+     * @param url the url of the file
+     * @return the probed file, or {@code null} if the file should be downloaded as a single stream
+     * @throws IOException if the request fails
+     */
+    @Nullable
+    private Probe probe(URL url) throws IOException {
+        if (parallelism == 1 || !url.getPath().endsWith(".jar")) {
+            return null;
+        }
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            return null;
+        }
+
+        HttpURLConnection httpConnection = (HttpURLConnection) connection;
+        try {
+            httpConnection.setRequestMethod("HEAD");
+            if (httpConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            if (!"bytes".equalsIgnoreCase(httpConnection.getHeaderField("Accept-Ranges"))) {
+                return null;
+            }
+            long length = httpConnection.getContentLengthLong();
+            if (length < threshold) {
+                return null;
+            }
+            String validator = httpConnection.getHeaderField("ETag");
+            if (validator == null) {
+                validator = httpConnection.getHeaderField("Last-Modified");
+            }
+            return new Probe(length, validator);
+        } finally {
+            httpConnection.disconnect();
+        }
+    }
+
+    private void downloadRanges(URL url, Path target, Probe probe, @Nullable PartFile partFile) throws IOException {
+        System.out.println("Downloading " + url + " in " + parallelism + " ranges");
+        target.toFile().getParentFile().mkdirs();
+
+        long length = probe.length;
+        try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+            file.setLength(length);
+            FileChannel channel = file.getChannel();
+
+            long rangeSize = (length + parallelism - 1) / parallelism;
+            // The position up to which each range was written
+            AtomicLongArray positions = new AtomicLongArray(parallelism);
+            // The first failure, which stops the other ranges
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[parallelism];
+            for (int index = 0; index < parallelism; index++) {
+                int range = index;
+                long start = index * rangeSize;
+                long end = Math.min(start + rangeSize, length) - 1;
+                positions.set(range, start);
+                futures[index] = CompletableFuture.runAsync(() -> {
+                    try {
+                        downloadRange(url, probe.validator, channel, start, end, failure, position -> positions.set(range, position));
+                    } catch (IOException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }, executor);
+            }
+
+            try {
+                CompletableFuture.allOf(futures).get();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, new InterruptedIOException("Download of " + url + " was interrupted"));
+                // The ranges write to the file, which is closed once they stopped
+                CompletableFuture.allOf(futures).handle((result, throwable) -> null).join();
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, new IOException(e.getCause()));
+            }
+
+            Exception exception = failure.get();
+            if (exception != null) {
+                if (partFile != null) {
+                    recordProgress(channel, partFile, probe.validator, positions, rangeSize, length);
+                }
+                if (exception instanceof InterruptedIOException) {
+                    throw (InterruptedIOException) exception;
+                }
+                throw new IOException("Failed to download " + url + " in parallel", exception);
+            }
+        }
+    }
+
+    /**
+     * Records the part of the file that was downloaded without gaps from the start.
+     */
+    private void recordProgress(FileChannel channel, PartFile partFile, @Nullable String validator,
+                                AtomicLongArray positions, long rangeSize, long length) throws IOException {
+        long complete = 0;
+        for (int index = 0; index < parallelism; index++) {
+            complete = positions.get(index);
+            if (complete < Math.min((index + 1) * rangeSize, length)) {
+                break;
+            }
+        }
+        channel.force(false);
+        partFile.setProgress(complete, validator);
+    }
+
+    private void downloadRange(URL url, @Nullable String validator, FileChannel channel, long start, long end,
+                               AtomicReference<Exception> failure, LongConsumer progress) throws IOException {
+        if (start > end) {
+            return;
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        boolean complete = false;
+        try {
+            connection.setRequestProperty("Range", "bytes=" + start + "-" + end);
+            if (validator != null) {
+                // Makes the server send the whole file instead of the range if it changed since it was probed
+                connection.setRequestProperty("If-Range", validator);
+            }
+            SingleThreadFileDownloader.checkResponse(connection, url);
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_OK && validator != null) {
+                throw new IOException(url + " changed since it was probed");
+            }
+            if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Server did not honour range " + start + "-" + end + " for " + url);
+            }
+
+            long position = start;
+            byte[] buffer = new byte[8192];
+            try (InputStream inputStream = connection.getInputStream()) {
+                int total;
+                while (position <= end && (total = inputStream.read(buffer)) != -1) {
+                    SingleThreadFileDownloader.checkInterrupted();
+                    if (failure.get() != null) {
+                        // Another range failed, the download is attempted again anyway
+                        return;
+                    }
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, (int) Math.min(total, end - position + 1));
+                    while (byteBuffer.hasRemaining()) {
+                        position += channel.write(byteBuffer, position);
+                    }
+                    progress.accept(position);
+                }
+            }
+
+            if (position != end + 1) {
+                throw new IOException("Range " + start + "-" + end + " of " + url + " ended early at " + position);
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                // Closes the connection instead of draining the rest of the response
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * The size and validator ({@code ETag} or {@code Last-Modified}) of a file that is downloaded in parallel.
+     */
+    private static final class Probe {
+
+        private final long length;
+        private final String validator;
+
+        Probe(long length, @Nullable String validator) {
+            this.length = length;
+            this.validator = validator;
+        }
+    }
+}
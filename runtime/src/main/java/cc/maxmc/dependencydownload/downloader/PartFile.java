@@ -0,0 +1,148 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * An incomplete download of a file, stored in a {@code .part} sibling of the target file.
+ * <p>
+ * The amount of bytes that have been durably written to the part file is recorded in a {@code .part.progress} file,
+ * together with the {@code ETag} or {@code Last-Modified} validator of the response,
+ * so that the download can be resumed with a {@code Range} request after a failure or on the next start.
+ */
+public class PartFile {
+
+    private static final String LENGTH = "length";
+    private static final String VALIDATOR = "validator";
+
+    private final Path target;
+    private final Path path;
+    private final Path progressPath;
+
+    /**
+     * Creates a {@link PartFile} for the provided target file.
+     *
+     * @param target the file the download will be moved to once it is complete
+     */
+    public PartFile(@NotNull Path target) {
+        this(target, target.resolveSibling(target.getFileName() + ".part"));
+    }
+
+    /**
+     * Creates a {@link PartFile} for the provided target file.
+     *
+     * @param target the file the download will be moved to once it is complete
+     * @param path   the file the download will be written into
+     */
+    public PartFile(@NotNull Path target, @NotNull Path path) {
+        this.target = target;
+        this.path = path;
+        this.progressPath = path.resolveSibling(path.getFileName() + ".progress");
+    }
+
+    /**
+     * Gets the file the download will be moved to once it is complete.
+     *
+     * @return the target file
+     */
+    @NotNull
+    public Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the file the download is written into.
+     *
+     * @return the part file
+     */
+    @NotNull
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the amount of bytes at the start of the part file that were durably written by a previous download.
+     *
+     * @return the amount of bytes that can be resumed from, {@code 0} if there is nothing to resume
+     * @throws IOException if reading the progress file fails
+     */
+    public long getVerifiedLength() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        String length = readProgress().getProperty(LENGTH);
+        if (length == null) {
+            return 0;
+        }
+        try {
+            return Math.min(Long.parseLong(length), Files.size(path));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the {@code ETag} or {@code Last-Modified} value of the response the part file was written from.
+     *
+     * @return the validator or {@code null} if unknown
+     * @throws IOException if reading the progress file fails
+     */
+    @Nullable
+    public String getValidator() throws IOException {
+        return readProgress().getProperty(VALIDATOR);
+    }
+
+    /**
+     * Records the amount of bytes that have been durably written to the part file.
+     *
+     * @param length    the amount of bytes
+     * @param validator the {@code ETag} or {@code Last-Modified} value of the response, or {@code null}
+     * @throws IOException if writing the progress file fails
+     */
+    public void setProgress(long length, @Nullable String validator) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(LENGTH, String.valueOf(length));
+        if (validator != null) {
+            properties.setProperty(VALIDATOR, validator);
+        }
+
+        FileUtils.store(progressPath, properties, null);
+    }
+
+    /**
+     * Moves the completed part file into the target file and removes the progress file.
+     *
+     * @throws IOException if moving the file fails
+     */
+    public void publish() throws IOException {
+        FileUtils.move(path, target);
+        Files.deleteIfExists(progressPath);
+    }
+
+    /**
+     * Deletes the part file and the progress file.
+     *
+     * @throws IOException if deleting the files fails
+     */
+    public void discard() throws IOException {
+        Files.deleteIfExists(progressPath);
+        Files.deleteIfExists(path);
+    }
+
+    private Properties readProgress() throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(progressPath)) {
+            try (InputStream inputStream = Files.newInputStream(progressPath)) {
+                properties.load(inputStream);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,107 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A {@link FileDownloader} meant to be shared between {@link cc.maxmc.dependencydownload.DependencyManager}s,
+ * which keeps the connections to each repository host alive between downloads.
+ * <p>
+ * Every host gets a bounded pool of connections, at most {@code maxConnectionsPerHost} downloads run against
+ * the same host at once and the rest wait for a connection to be returned. Response bodies (including error bodies)
+ * are always fully consumed, so the JDK's keep-alive cache can hand the same connection (and TLS session)
+ * to the next download for that host. The amount of idle connections the JDK keeps per host is controlled by the
+ * {@code http.maxConnections} system property (defaults to 5), which should not be lower than {@code maxConnectionsPerHost}.
+ */
+@SuppressWarnings("unused") // API
+public class PooledFileDownloader extends SingleThreadFileDownloader {
+
+    /**
+     * The default amount of concurrent connections per host.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+    private final int maxConnectionsPerHost;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * Creates a {@link PooledFileDownloader} with {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST} and 10 second connect and read timeouts.
+     */
+    public PooledFileDownloader() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST, 10_000, 10_000);
+    }
+
+    /**
+     * Creates a {@link PooledFileDownloader}.
+     *
+     * @param maxConnectionsPerHost the maximum amount of concurrent connections to a single host
+     * @param connectTimeout        the connect timeout in milliseconds, {@code 0} for no timeout
+     * @param readTimeout           the read timeout in milliseconds, {@code 0} for no timeout
+     */
+    public PooledFileDownloader(int maxConnectionsPerHost, int connectTimeout, int readTimeout) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("At least one connection per host is required");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public void downloadFile(URL url, Path target) throws IOException {
+        Semaphore connections = acquire(url);
+        try {
+            super.downloadFile(url, target);
+        } finally {
+            connections.release();
+        }
+    }
+
+    @Override
+    public void downloadFile(URL url, Path target, MessageDigest digest) throws IOException {
+        Semaphore connections = acquire(url);
+        try {
+            super.downloadFile(url, target, digest);
+        } finally {
+            connections.release();
+        }
+    }
+
+    @Override
+    public void downloadFile(URL url, PartFile partFile, MessageDigest digest) throws IOException {
+        Semaphore connections = acquire(url);
+        try {
+            super.downloadFile(url, partFile, digest);
+        } finally {
+            connections.release();
+        }
+    }
+
+    @Override
+    protected URLConnection openConnection(URL url) throws IOException {
+        URLConnection connection = super.openConnection(url);
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        return connection;
+    }
+
+    private Semaphore acquire(URL url) throws InterruptedIOException {
+        Semaphore connections = hosts.computeIfAbsent(url.getProtocol() + "://" + url.getAuthority(), host -> new Semaphore(maxConnectionsPerHost, true));
+        try {
+            connections.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + url.getHost());
+        }
+        return connections;
+    }
+}
@@ -1,28 +1,214 @@
 package cc.maxmc.dependencydownload.downloader;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 
 public class SingleThreadFileDownloader implements FileDownloader {
+
+    /**
+     * The amount of bytes after which the progress of a {@link PartFile} download is recorded.
+     */
+    protected static final long PROGRESS_INTERVAL = 1024 * 1024;
+
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
     @Override
     public void downloadFile(URL url, Path target) throws IOException {
+        download(url, target, null);
+    }
+
+    @Override
+    public void downloadFile(URL url, Path target, MessageDigest digest) throws IOException {
+        download(url, target, digest);
+    }
+
+    @Override
+    public void downloadFile(URL url, PartFile partFile, MessageDigest digest) throws IOException {
+        resume(url, partFile, digest);
+    }
+
+    /**
+     * Opens the connection used to download the provided url.
+     *
+     * @param url the url to download
+     * @return the connection
+     * @throws IOException if opening the connection fails
+     */
+    protected URLConnection openConnection(URL url) throws IOException {
+        return url.openConnection();
+    }
+
+    /**
+     * Copies the response body into the target file, from the channel's current position.
+     *
+     * @param inputStream the response body
+     * @param channel     the target file
+     * @param digest      the digest to update with the written bytes, or {@code null}
+     * @param listener    the listener notified of durably written bytes, or {@code null}
+     * @throws IOException if reading the response or writing the file fails
+     */
+    protected void transfer(InputStream inputStream, FileChannel channel, @Nullable MessageDigest digest, @Nullable ProgressListener listener) throws IOException {
+        byte[] buffer = new byte[8192];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long unrecorded = 0;
+        int total;
+        while ((total = inputStream.read(buffer)) != -1) {
+            checkInterrupted();
+            byteBuffer.clear();
+            byteBuffer.limit(total);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+            if (digest != null) {
+                digest.update(buffer, 0, total);
+            }
+
+            unrecorded += total;
+            if (listener != null && unrecorded >= PROGRESS_INTERVAL) {
+                channel.force(false);
+                listener.written(channel.position());
+                unrecorded = 0;
+            }
+        }
+
+        if (listener != null) {
+            channel.force(false);
+            listener.written(channel.position());
+        }
+    }
+
+    private void download(URL url, Path target, MessageDigest digest) throws IOException {
         System.out.println("Downloading " + url);
         target.toFile().getParentFile().mkdirs();
-        URLConnection connection = url.openConnection();
-
-        byte[] buffer = new byte[4096];
-        try (BufferedInputStream inputStream = new BufferedInputStream(connection.getInputStream())) {
-            try (BufferedOutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target))) {
-                int total;
-                while ((total = inputStream.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, total);
+        URLConnection connection = openConnection(url);
+        checkResponse(connection, url);
+
+        try (InputStream inputStream = connection.getInputStream()) {
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                transfer(inputStream, channel, digest, null);
+            }
+        }
+    }
+
+    private void resume(URL url, PartFile partFile, MessageDigest digest) throws IOException {
+        Path path = partFile.getPath();
+        path.toFile().getParentFile().mkdirs();
+        long offset = partFile.getVerifiedLength();
+        String validator = partFile.getValidator();
+
+        URLConnection connection = openConnection(url);
+        if (offset > 0 && connection instanceof HttpURLConnection) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+            if (validator != null) {
+                // Makes the server send the whole file if it changed since the part file was written
+                connection.setRequestProperty("If-Range", validator);
+            }
+        }
+
+        int responseCode = connection instanceof HttpURLConnection ? ((HttpURLConnection) connection).getResponseCode() : -1;
+        if (offset > 0 && responseCode == HTTP_RANGE_NOT_SATISFIABLE) {
+            // The part file is not a prefix of the file on the server
+            drain(((HttpURLConnection) connection).getErrorStream());
+            partFile.discard();
+            resume(url, partFile, digest);
+            return;
+        }
+        checkResponse(connection, url);
+
+        if (offset > 0 && responseCode == HttpURLConnection.HTTP_PARTIAL) {
+            System.out.println("Resuming " + url + " from byte " + offset);
+        } else {
+            System.out.println("Downloading " + url);
+            offset = 0;
+            validator = connection.getHeaderField("ETag");
+            if (validator == null) {
+                validator = connection.getHeaderField("Last-Modified");
+            }
+        }
+
+        try (InputStream inputStream = connection.getInputStream()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(offset);
+                if (offset > 0 && digest != null) {
+                    HashUtils.updateDigest(digest, path);
                 }
+                channel.position(offset);
+
+                String responseValidator = validator;
+                transfer(inputStream, channel, digest, length -> partFile.setProgress(length, responseValidator));
+            }
+        }
+    }
+
+    /**
+     * Stops the download if the thread was interrupted, for example when another repository won a race.
+     *
+     * @throws InterruptedIOException if the current thread was interrupted
+     */
+    protected static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Download was interrupted");
+        }
+    }
+
+    /**
+     * Fails the download if the server responded with an error, after consuming the error body.
+     *
+     * @param connection the connection
+     * @param url        the url being downloaded
+     * @throws FileNotFoundException if the server responded with 404
+     * @throws IOException           if the server responded with another error
+     */
+    protected static void checkResponse(URLConnection connection, URL url) throws IOException {
+        if (!(connection instanceof HttpURLConnection)) {
+            return;
+        }
+
+        HttpURLConnection httpConnection = (HttpURLConnection) connection;
+        int responseCode = httpConnection.getResponseCode();
+        if (responseCode < 400) {
+            return;
+        }
+
+        // Consume the error body so the connection can be reused
+        drain(httpConnection.getErrorStream());
+        if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+            throw new FileNotFoundException(url.toString());
+        }
+        throw new IOException("Server returned HTTP response code " + responseCode + " for " + url);
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return;
+        }
+        try (InputStream stream = inputStream) {
+            byte[] buffer = new byte[1024];
+            while (stream.read(buffer) != -1) {
+                // discard
             }
         }
     }
+
+    /**
+     * Listener for the amount of bytes durably written to a file.
+     */
+    @FunctionalInterface
+    protected interface ProgressListener {
+
+        void written(long length) throws IOException;
+    }
 }
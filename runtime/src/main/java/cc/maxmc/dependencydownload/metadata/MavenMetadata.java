@@ -0,0 +1,280 @@
+package cc.maxmc.dependencydownload.metadata;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The parts of a {@code maven-metadata.xml} needed to resolve snapshot versions and version ranges.
+ *
+ * @see MavenMetadataParser
+ */
+@SuppressWarnings("unused") // API
+public class MavenMetadata {
+
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private String timestamp;
+    private int buildNumber;
+    private boolean localCopy;
+    private String lastUpdated;
+    private String latest;
+    private String release;
+    private final List<String> versions = new ArrayList<>();
+    private final List<SnapshotVersion> snapshotVersions = new ArrayList<>();
+
+    /**
+     * The group id.
+     *
+     * @return the group id or {@code null}
+     */
+    @Nullable
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * The artifact id.
+     *
+     * @return the artifact id or {@code null}
+     */
+    @Nullable
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * The version, only present in the metadata of a single (snapshot) version.
+     *
+     * @return the version or {@code null}
+     */
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * The timestamp of the latest snapshot, in the {@code yyyyMMdd.HHmmss} format.
+     *
+     * @return the timestamp or {@code null} if the metadata has no snapshot
+     */
+    @Nullable
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The build number of the latest snapshot.
+     *
+     * @return the build number or {@code 0} if the metadata has no snapshot
+     */
+    public int getBuildNumber() {
+        return buildNumber;
+    }
+
+    /**
+     * If the snapshot was installed locally, local snapshots are not timestamped.
+     *
+     * @return true if the snapshot is a local copy
+     */
+    public boolean isLocalCopy() {
+        return localCopy;
+    }
+
+    /**
+     * When the metadata was last updated, in the {@code yyyyMMddHHmmss} format.
+     *
+     * @return the last update or {@code null}
+     */
+    @Nullable
+    public String getLastUpdated() {
+        return lastUpdated;
+    }
+
+    /**
+     * The latest version, only present in the metadata of an artifact.
+     *
+     * @return the latest version or {@code null}
+     */
+    @Nullable
+    public String getLatest() {
+        return latest;
+    }
+
+    /**
+     * The latest release version, only present in the metadata of an artifact.
+     *
+     * @return the latest release version or {@code null}
+     */
+    @Nullable
+    public String getRelease() {
+        return release;
+    }
+
+    /**
+     * The available versions, only present in the metadata of an artifact.
+     *
+     * @return an unmodifiable list of versions, in the order they are listed
+     */
+    @NotNull
+    public List<String> getVersions() {
+        return Collections.unmodifiableList(versions);
+    }
+
+    /**
+     * The snapshot versions of the individual files of the latest snapshot.
+     *
+     * @return an unmodifiable list of snapshot versions
+     */
+    @NotNull
+    public List<SnapshotVersion> getSnapshotVersions() {
+        return Collections.unmodifiableList(snapshotVersions);
+    }
+
+    /**
+     * Gets the latest snapshot version of the file with the provided classifier and extension.
+     * Falls back to the timestamp and build number of the latest snapshot if the file is not listed individually.
+     *
+     * @param classifier the classifier of the file or {@code null}
+     * @param extension  the extension of the file
+     * @return the snapshot version or {@code null} if the metadata has no snapshot
+     */
+    @Nullable
+    public SnapshotVersion getSnapshotVersion(@Nullable String classifier, @NotNull String extension) {
+        for (SnapshotVersion snapshotVersion : snapshotVersions) {
+            if (Objects.equals(classifier, snapshotVersion.getClassifier()) && extension.equals(snapshotVersion.getExtension())) {
+                return snapshotVersion;
+            }
+        }
+
+        if (version == null || !version.endsWith(SNAPSHOT_SUFFIX)) {
+            return null;
+        }
+        if (timestamp != null) {
+            String baseVersion = version.substring(0, version.length() - SNAPSHOT_SUFFIX.length());
+            return new SnapshotVersion(classifier, extension, baseVersion + '-' + timestamp + '-' + buildNumber, timestamp.replace(".", ""));
+        }
+        if (localCopy) {
+            return new SnapshotVersion(classifier, extension, version, lastUpdated);
+        }
+        return null;
+    }
+
+    void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    void setVersion(String version) {
+        this.version = version;
+    }
+
+    void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    void setBuildNumber(int buildNumber) {
+        this.buildNumber = buildNumber;
+    }
+
+    void setLocalCopy(boolean localCopy) {
+        this.localCopy = localCopy;
+    }
+
+    void setLastUpdated(String lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
+    void setLatest(String latest) {
+        this.latest = latest;
+    }
+
+    void setRelease(String release) {
+        this.release = release;
+    }
+
+    void addVersion(String version) {
+        versions.add(version);
+    }
+
+    void addSnapshotVersion(SnapshotVersion snapshotVersion) {
+        snapshotVersions.add(snapshotVersion);
+    }
+
+    /**
+     * The snapshot version of a single file of a snapshot.
+     */
+    public static class SnapshotVersion {
+
+        private final String classifier;
+        private final String extension;
+        private final String value;
+        private final String updated;
+
+        public SnapshotVersion(@Nullable String classifier, @NotNull String extension, @NotNull String value, @Nullable String updated) {
+            this.classifier = classifier;
+            this.extension = extension;
+            this.value = value;
+            this.updated = updated;
+        }
+
+        @Nullable
+        public String getClassifier() {
+            return classifier;
+        }
+
+        @NotNull
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * The timestamped version, for example {@code 1.0-20240101.120000-1}.
+         *
+         * @return the timestamped version
+         */
+        @NotNull
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * When the file was deployed, in the {@code yyyyMMddHHmmss} format.
+         *
+         * @return the time the file was deployed or {@code null}
+         */
+        @Nullable
+        public String getUpdated() {
+            return updated;
+        }
+
+        /**
+         * Checks if this snapshot version was deployed after the provided one.
+         *
+         * @param other the other snapshot version
+         * @return true if this snapshot version is newer
+         */
+        public boolean isNewerThan(@NotNull SnapshotVersion other) {
+            if (updated == null || other.updated == null) {
+                return updated != null;
+            }
+            // Both in the yyyyMMddHHmmss format
+            return updated.compareTo(other.updated) > 0;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package cc.maxmc.dependencydownload.metadata;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import cc.maxmc.dependencydownload.repository.Repository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of the {@code maven-metadata.xml} files of repositories, used to resolve snapshot versions and version ranges.
+ * <p>
+ * Metadata is requested again once it is older than the time to live, with the {@code ETag} and {@code Last-Modified}
+ * of the cached copy so unchanged metadata is not transferred again. That repositories do not have metadata is cached the same way.
+ * If a repository cannot be reached the expired copy is used. With a directory, the metadata is kept across restarts.
+ * <p>
+ * Concurrent requests for the same metadata wait for the first one instead of requesting it again,
+ * so a cache can be shared by multiple {@link cc.maxmc.dependencydownload.DependencyManager}s.
+ */
+@SuppressWarnings("unused") // API
+public class MavenMetadataCache {
+
+    /**
+     * The default time to live of metadata, 10 minutes.
+     */
+    public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String METADATA_FILE_NAME = "maven-metadata.xml";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> requests = new ConcurrentHashMap<>();
+    private final Path directory;
+    private final long ttl;
+
+    /**
+     * Creates a {@link MavenMetadataCache} with the {@link #DEFAULT_TTL}.
+     *
+     * @param directory the directory to store the metadata in, or {@code null} to only keep it in memory
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public MavenMetadataCache(@Nullable Path directory) {
+        this(directory, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a {@link MavenMetadataCache}.
+     *
+     * @param directory the directory to store the metadata in, or {@code null} to only keep it in memory
+     * @param ttl       how long metadata is used before it is requested again, in milliseconds
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public MavenMetadataCache(@Nullable Path directory, long ttl) {
+        this.directory = directory;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Gets the metadata of the version of the provided maven object, which lists its snapshot versions.
+     *
+     * @param repository  the repository
+     * @param mavenObject the maven object
+     * @return the metadata or {@code null} if the repository does not have it
+     * @throws IOException if the metadata cannot be requested or parsed and no earlier copy is cached
+     */
+    @Nullable
+    public MavenMetadata getVersionMetadata(@NotNull Repository repository, @NotNull MavenObject mavenObject) throws IOException {
+        return getMetadata(repository, mavenObject.getGroupId().replace('.', '/')
+                + '/' + mavenObject.getArtifactId()
+                + '/' + mavenObject.getVersion()
+                + '/' + METADATA_FILE_NAME);
+    }
+
+    /**
+     * Gets the metadata of the provided artifact, which lists its available versions.
+     *
+     * @param repository the repository
+     * @param groupId    the group id
+     * @param artifactId the artifact id
+     * @return the metadata or {@code null} if the repository does not have it
+     * @throws IOException if the metadata cannot be requested or parsed and no earlier copy is cached
+     */
+    @Nullable
+    public MavenMetadata getArtifactMetadata(@NotNull Repository repository, @NotNull String groupId, @NotNull String artifactId) throws IOException {
+        return getMetadata(repository, groupId.replace('.', '/') + '/' + artifactId + '/' + METADATA_FILE_NAME);
+    }
+
+    /**
+     * Gets the metadata at the provided path of the provided repository.
+     *
+     * @param repository the repository
+     * @param path       the path of the metadata file, without the host or slash at the beginning
+     * @return the metadata or {@code null} if the repository does not have it
+     * @throws IOException if the metadata cannot be requested or parsed and no earlier copy is cached
+     */
+    @Nullable
+    public MavenMetadata getMetadata(@NotNull Repository repository, @NotNull String path) throws IOException {
+        String key = repository.getHost() + '/' + path;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.fetched + ttl >= System.currentTimeMillis()) {
+            return entry.metadata;
+        }
+
+        CompletableFuture<Entry> request = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = requests.putIfAbsent(key, request);
+        if (existing != null) {
+            return await(existing).metadata;
+        }
+        try {
+            entry = load(repository, path, key);
+            request.complete(entry);
+            return entry.metadata;
+        } catch (IOException | RuntimeException e) {
+            request.completeExceptionally(e);
+            throw e;
+        } finally {
+            requests.remove(key, request);
+        }
+    }
+
+    private Entry load(Repository repository, String path, String key) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = read(repository, path);
+        }
+
+        long now = System.currentTimeMillis();
+        if (entry == null || entry.fetched + ttl < now) {
+            try {
+                entry = fetch(repository, path, entry);
+            } catch (IOException e) {
+                if (entry == null || entry.metadata == null) {
+                    throw e;
+                }
+                System.out.println("Using cached " + key + ", the repository could not be reached: " + e);
+                // Not requested again until the time to live passed again
+                entry = new Entry(entry.metadata, now, entry.etag, entry.lastModified);
+            }
+        }
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private static Entry await(CompletableFuture<Entry> request) throws IOException {
+        try {
+            return request.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for metadata");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private Entry fetch(Repository repository, String path, @Nullable Entry cached) throws IOException {
+        URL url = new URL(repository.getHost() + '/' + path);
+        long now = System.currentTimeMillis();
+        URLConnection connection = url.openConnection();
+        if (connection instanceof HttpURLConnection) {
+            HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            if (cached != null && cached.metadata != null) {
+                if (cached.etag != null) {
+                    httpConnection.setRequestProperty("If-None-Match", cached.etag);
+                }
+                if (cached.lastModified != null) {
+                    httpConnection.setRequestProperty("If-Modified-Since", cached.lastModified);
+                }
+            }
+
+            int responseCode = httpConnection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null && cached.metadata != null) {
+                drain(httpConnection.getInputStream());
+                Entry entry = new Entry(cached.metadata, now, cached.etag, cached.lastModified);
+                write(repository, path, entry, null);
+                return entry;
+            }
+            if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                drain(httpConnection.getErrorStream());
+                Entry entry = new Entry(null, now, null, null);
+                write(repository, path, entry, null);
+                return entry;
+            }
+            if (responseCode >= 400) {
+                drain(httpConnection.getErrorStream());
+                throw new IOException("Server returned HTTP response code " + responseCode + " for " + url);
+            }
+        }
+
+        System.out.println("Downloading " + url);
+        byte[] body;
+        try (InputStream inputStream = connection.getInputStream()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int total;
+            while ((total = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, total);
+            }
+            body = outputStream.toByteArray();
+        } catch (FileNotFoundException e) {
+            // Repositories that are not served over http
+            Entry entry = new Entry(null, now, null, null);
+            write(repository, path, entry, null);
+            return entry;
+        }
+
+        Entry entry = new Entry(MavenMetadataParser.parse(new ByteArrayInputStream(body)), now,
+                connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+        write(repository, path, entry, body);
+        return entry;
+    }
+
+    private Entry read(Repository repository, String path) {
+        if (directory == null) {
+            return null;
+        }
+
+        Path metadataFile = getFile(repository, path);
+        Path stateFile = getStateFile(metadataFile);
+        if (!Files.exists(stateFile)) {
+            return null;
+        }
+        try {
+            Properties properties = new Properties();
+            try (InputStream inputStream = Files.newInputStream(stateFile)) {
+                properties.load(inputStream);
+            }
+            long fetched = Long.parseLong(properties.getProperty("fetched"));
+            if (Boolean.parseBoolean(properties.getProperty("missing"))) {
+                return new Entry(null, fetched, null, null);
+            }
+            return new Entry(MavenMetadataParser.parse(metadataFile), fetched, properties.getProperty("etag"), properties.getProperty("lastModified"));
+        } catch (IOException | RuntimeException e) {
+            // Corrupt, requested again
+            return null;
+        }
+    }
+
+    private void write(Repository repository, String path, Entry entry, @Nullable byte[] body) throws IOException {
+        if (directory == null) {
+            return;
+        }
+
+        Path metadataFile = getFile(repository, path);
+        if (body != null) {
+            FileUtils.write(metadataFile, outputStream -> outputStream.write(body));
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("fetched", String.valueOf(entry.fetched));
+        if (entry.metadata == null) {
+            properties.setProperty("missing", "true");
+        }
+        if (entry.etag != null) {
+            properties.setProperty("etag", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            properties.setProperty("lastModified", entry.lastModified);
+        }
+        FileUtils.store(getStateFile(metadataFile), properties, "Maven metadata validators");
+    }
+
+    private Path getFile(Repository repository, String path) {
+        // One directory per repository, named after the host without characters that are not allowed in file names
+        return directory.resolve(repository.getHost().replaceAll("[^A-Za-z0-9.-]", "_")).resolve(path);
+    }
+
+    private static Path getStateFile(Path metadataFile) {
+        return metadataFile.resolveSibling(metadataFile.getFileName() + ".properties");
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return;
+        }
+        try (InputStream stream = inputStream) {
+            byte[] buffer = new byte[1024];
+            while (stream.read(buffer) != -1) {
+                // discard
+            }
+        }
+    }
+
+    /**
+     * Cached metadata, or that the repository does not have it if the metadata is {@code null}.
+     */
+    private static class Entry {
+
+        private final MavenMetadata metadata;
+        private final long fetched;
+        private final String etag;
+        private final String lastModified;
+
+        Entry(@Nullable MavenMetadata metadata, long fetched, @Nullable String etag, @Nullable String lastModified) {
+            this.metadata = metadata;
+            this.fetched = fetched;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
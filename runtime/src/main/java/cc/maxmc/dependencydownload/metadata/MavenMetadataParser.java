@@ -0,0 +1,212 @@
+package cc.maxmc.dependencydownload.metadata;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A {@code maven-metadata.xml} parser that streams the metadata with StAX into a {@link MavenMetadata}.
+ */
+@SuppressWarnings("unused") // API
+public final class MavenMetadataParser {
+
+    // Thread-safe once configured
+    private static final XMLInputFactory FACTORY;
+
+    static {
+        FACTORY = XMLInputFactory.newInstance();
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private MavenMetadataParser() {
+    }
+
+    /**
+     * Parses the provided metadata file.
+     *
+     * @param path the metadata file
+     * @return the parsed metadata
+     * @throws IOException if reading or parsing the metadata fails
+     */
+    @NotNull
+    public static MavenMetadata parse(@NotNull Path path) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path))) {
+            return parse(inputStream);
+        }
+    }
+
+    /**
+     * Parses the provided metadata, the stream is not closed.
+     *
+     * @param inputStream the metadata
+     * @return the parsed metadata
+     * @throws IOException if reading or parsing the metadata fails
+     */
+    @NotNull
+    public static MavenMetadata parse(@NotNull InputStream inputStream) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.createXMLStreamReader(inputStream);
+            return parseMetadata(reader);
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Failed to parse maven metadata", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    private static MavenMetadata parseMetadata(XMLStreamReader reader) throws XMLStreamException {
+        MavenMetadata metadata = new MavenMetadata();
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !reader.getLocalName().equals("metadata")) {
+            throw new XMLStreamException("Not maven metadata, the root element is not metadata", reader.getLocation());
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "groupId":
+                    metadata.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    metadata.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    metadata.setVersion(text(reader));
+                    break;
+                case "versioning":
+                    parseVersioning(reader, metadata);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+        return metadata;
+    }
+
+    private static void parseVersioning(XMLStreamReader reader, MavenMetadata metadata) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "snapshot":
+                    parseSnapshot(reader, metadata);
+                    break;
+                case "lastUpdated":
+                    metadata.setLastUpdated(text(reader));
+                    break;
+                case "latest":
+                    metadata.setLatest(text(reader));
+                    break;
+                case "release":
+                    metadata.setRelease(text(reader));
+                    break;
+                case "versions":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if (reader.getLocalName().equals("version")) {
+                            metadata.addVersion(text(reader));
+                        } else {
+                            skip(reader);
+                        }
+                    }
+                    break;
+                case "snapshotVersions":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if (reader.getLocalName().equals("snapshotVersion")) {
+                            MavenMetadata.SnapshotVersion snapshotVersion = parseSnapshotVersion(reader);
+                            if (snapshotVersion != null) {
+                                metadata.addSnapshotVersion(snapshotVersion);
+                            }
+                        } else {
+                            skip(reader);
+                        }
+                    }
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+    }
+
+    private static void parseSnapshot(XMLStreamReader reader, MavenMetadata metadata) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "timestamp":
+                    metadata.setTimestamp(text(reader));
+                    break;
+                case "buildNumber":
+                    metadata.setBuildNumber(Integer.parseInt(text(reader)));
+                    break;
+                case "localCopy":
+                    metadata.setLocalCopy("true".equals(text(reader)));
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+    }
+
+    private static MavenMetadata.SnapshotVersion parseSnapshotVersion(XMLStreamReader reader) throws XMLStreamException {
+        String classifier = null;
+        String extension = null;
+        String value = null;
+        String updated = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "classifier":
+                    classifier = text(reader);
+                    break;
+                case "extension":
+                    extension = text(reader);
+                    break;
+                case "value":
+                    value = text(reader);
+                    break;
+                case "updated":
+                    updated = text(reader);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+        if (extension == null || value == null) {
+            return null;
+        }
+        return new MavenMetadata.SnapshotVersion(classifier == null || classifier.isEmpty() ? null : classifier, extension, value, updated);
+    }
+
+    private static String text(XMLStreamReader reader) throws XMLStreamException {
+        return reader.getElementText().trim();
+    }
+
+    /**
+     * Skips the current element and its children, leaves the reader at its end element.
+     */
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package cc.maxmc.dependencydownload.path;
 import cc.maxmc.dependencydownload.dependency.MavenObject;
 import cc.maxmc.dependencydownload.relocation.Relocation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
 import java.util.Set;
@@ -30,4 +31,16 @@ public interface DependencyPathProvider {
      */
     @NotNull
     Path getDependencyHashPath(@NotNull MavenObject mavenObject);
+
+    /**
+     * Gets the path that should be used for a metadata file, like the state learned by a
+     * {@link cc.maxmc.dependencydownload.repository.RepositoryStrategy}, stored alongside the dependencies.
+     *
+     * @param fileName the name of the metadata file
+     * @return The absolute or relative path for the metadata file or {@code null} if this provider does not store metadata
+     */
+    @Nullable
+    default Path getMetadataPath(@NotNull String fileName) {
+        return null;
+    }
 }
@@ -37,7 +37,8 @@ public class DirectoryDependencyPathProvider implements CleanupPathProvider {
         if (relocations.isEmpty()) {
             return path.resolve(mavenObject.getStoredFileName());
         } else {
-            return path.resolve(relocations.hashCode() + "-" + mavenObject.getStoredFileName());
+            // Stable across runs and independent of the order the relocations were added in
+            return path.resolve(Relocation.digest(relocations).substring(0, 16) + "-" + mavenObject.getStoredFileName());
         }
     }
 
@@ -46,4 +47,10 @@ public class DirectoryDependencyPathProvider implements CleanupPathProvider {
         Path path = cacheDirectory.resolve(mavenObject.getGroupId().replaceAll("\\.", File.separator)).resolve(mavenObject.getArtifactId()).resolve(mavenObject.getVersion());
         return path.resolve(mavenObject.getHashFileName());
     }
+
+    @Override
+    public @NotNull Path getMetadataPath(@NotNull String fileName) {
+        // A directory, so it is left alone by DependencyManager#cleanupCacheDirectory
+        return cacheDirectory.resolve(".metadata").resolve(fileName);
+    }
 }
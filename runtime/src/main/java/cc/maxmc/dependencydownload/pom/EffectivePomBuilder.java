@@ -0,0 +1,409 @@
+package cc.maxmc.dependencydownload.pom;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.dependency.PomMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleasePom;
+import cc.maxmc.dependencydownload.resolve.PomDependency;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Builds the effective pom of a dependency, like maven does for the dependencies it resolves:
+ * <ul>
+ *     <li>The parent chain is inherited: coordinates, properties, dependency management and dependencies</li>
+ *     <li>{@code ${property}} references are interpolated with the properties and the {@code project.*} coordinates</li>
+ *     <li>The dependency management of imported boms ({@code <scope>import</scope>}) is added</li>
+ *     <li>Dependencies without a version or scope get them from the dependency management</li>
+ * </ul>
+ * Inherited and effective poms are cached in memory in a bounded cache shared by all builders in the JVM, inherited poms
+ * optionally also on disk, so parents and boms shared by many dependencies are only retrieved and parsed once. Snapshots are never cached.
+ */
+@SuppressWarnings("unused") // API
+public class EffectivePomBuilder {
+
+    private static final int MAX_CACHED_MODELS = 512;
+    private static final int MAX_PARENTS = 32;
+    private static final int MAX_INTERPOLATION_DEPTH = 16;
+    private static final int FORMAT_VERSION = 1;
+    private static final PomModelCache CACHE = new PomModelCache(MAX_CACHED_MODELS);
+
+    private final PomModelSource source;
+    private final Path cacheDirectory;
+
+    /**
+     * Creates a {@link EffectivePomBuilder}.
+     *
+     * @param source         the source for poms, including parents and boms
+     * @param cacheDirectory the directory to cache inherited poms in or {@code null} to only cache them in memory
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public EffectivePomBuilder(@NotNull PomModelSource source, @Nullable Path cacheDirectory) {
+        this.source = source;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Builds the effective pom of the provided pom.
+     *
+     * @param pom the pom
+     * @return the effective pom, its dependencies and dependency management are complete and interpolated
+     * @throws Exception if a pom in the parent chain or an imported bom cannot be retrieved or parsed
+     */
+    @NotNull
+    public PomModel build(@NotNull PomMavenObject pom) throws Exception {
+        return build(pom, new HashSet<>());
+    }
+
+    private PomModel build(PomMavenObject pom, Set<String> importing) throws Exception {
+        String key = getKey(pom);
+        if (!importing.add(key)) {
+            throw new IllegalStateException("Cycle in the imported boms of " + key);
+        }
+
+        try {
+            if (isSnapshot(pom)) {
+                return buildEffective(pom, importing);
+            }
+            return CACHE.get("effective:" + key, () -> buildEffective(pom, importing));
+        } finally {
+            importing.remove(key);
+        }
+    }
+
+    private PomModel buildEffective(PomMavenObject pom, Set<String> importing) throws Exception {
+        PomModel inherited = getInherited(pom, new HashSet<>());
+        Map<String, String> properties = getProperties(inherited);
+
+        // Own management first, so it wins over imported boms
+        Map<String, PomDependency> management = new LinkedHashMap<>();
+        List<PomDependency> imports = new ArrayList<>();
+        for (PomDependency managed : inherited.getDependencyManagement()) {
+            PomDependency dependency = interpolate(managed, properties);
+            if (dependency.getScope() == DependencyScope.IMPORT && dependency.getType().equals("pom")) {
+                imports.add(dependency);
+            } else {
+                management.putIfAbsent(getManagementKey(dependency), dependency);
+            }
+        }
+        for (PomDependency bom : imports) {
+            if (bom.getVersion() == null) {
+                throw new IllegalStateException("Imported bom " + bom + " of " + pom + " has no version");
+            }
+            PomModel effectiveBom = build(new ReleasePom(bom.getGroupId(), bom.getArtifactId(), bom.getVersion(), null), importing);
+            for (PomDependency managed : effectiveBom.getDependencyManagement()) {
+                management.putIfAbsent(getManagementKey(managed), managed);
+            }
+        }
+
+        PomModel model = new PomModel();
+        model.setGroupId(inherited.getGroupId());
+        model.setArtifactId(inherited.getArtifactId());
+        model.setVersion(inherited.getVersion());
+        model.setPackaging(inherited.getPackaging());
+        model.setParent(inherited.getParent());
+        for (Map.Entry<String, String> property : inherited.getProperties().entrySet()) {
+            model.addProperty(property.getKey(), property.getValue());
+        }
+        for (PomDependency managed : management.values()) {
+            model.addManagedDependency(managed);
+        }
+        for (PomDependency declared : inherited.getDependencies()) {
+            PomDependency dependency = interpolate(declared, properties);
+            model.addDependency(applyManagement(dependency, management.get(getManagementKey(dependency))));
+        }
+        return model;
+    }
+
+    /**
+     * Gets the pom merged with its parent chain, without interpolation.
+     */
+    private PomModel getInherited(PomMavenObject pom, Set<String> visiting) throws Exception {
+        String key = getKey(pom);
+        if (!visiting.add(key)) {
+            throw new IllegalStateException("Cycle in the parents of " + key);
+        }
+        if (visiting.size() > MAX_PARENTS) {
+            throw new IllegalStateException("Too many parents for " + key);
+        }
+
+        try {
+            if (isSnapshot(pom)) {
+                return inherit(source.getModel(pom), visiting);
+            }
+            return CACHE.get(key, () -> {
+                PomModel cached = readCached(key);
+                if (cached != null) {
+                    return cached;
+                }
+                PomModel inherited = inherit(source.getModel(pom), visiting);
+                writeCached(key, inherited);
+                return inherited;
+            });
+        } finally {
+            visiting.remove(key);
+        }
+    }
+
+    private PomModel inherit(PomModel model, Set<String> visiting) throws Exception {
+        PomModel.Parent parent = model.getParent();
+        if (parent == null) {
+            return model;
+        }
+        PomModel inheritedParent = getInherited(new ReleasePom(parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), null), visiting);
+
+        PomModel inherited = new PomModel();
+        inherited.setGroupId(model.getGroupId() != null ? model.getGroupId() : parent.getGroupId());
+        inherited.setArtifactId(model.getArtifactId());
+        inherited.setVersion(model.getVersion() != null ? model.getVersion() : parent.getVersion());
+        inherited.setPackaging(model.getPackaging());
+        inherited.setParent(parent);
+
+        for (Map.Entry<String, String> property : inheritedParent.getProperties().entrySet()) {
+            inherited.addProperty(property.getKey(), property.getValue());
+        }
+        for (Map.Entry<String, String> property : model.getProperties().entrySet()) {
+            inherited.addProperty(property.getKey(), property.getValue());
+        }
+        for (PomDependency managed : merge(inheritedParent.getDependencyManagement(), model.getDependencyManagement())) {
+            inherited.addManagedDependency(managed);
+        }
+        for (PomDependency dependency : merge(inheritedParent.getDependencies(), model.getDependencies())) {
+            inherited.addDependency(dependency);
+        }
+        return inherited;
+    }
+
+    private static String getKey(PomMavenObject pom) {
+        return pom.getGroupId() + ":" + pom.getArtifactId() + ":" + pom.getVersion();
+    }
+
+    private static boolean isSnapshot(PomMavenObject pom) {
+        return pom.isSnapshot() || pom.getVersion().endsWith("-SNAPSHOT");
+    }
+
+    private static Collection<PomDependency> merge(List<PomDependency> parent, List<PomDependency> child) {
+        Map<String, PomDependency> merged = new LinkedHashMap<>();
+        for (PomDependency dependency : parent) {
+            merged.put(getManagementKey(dependency), dependency);
+        }
+        for (PomDependency dependency : child) {
+            merged.put(getManagementKey(dependency), dependency);
+        }
+        return merged.values();
+    }
+
+    private static Map<String, String> getProperties(PomModel model) {
+        Map<String, String> properties = new HashMap<>(model.getProperties());
+        putIfNotNull(properties, "groupId", model.getGroupId());
+        putIfNotNull(properties, "artifactId", model.getArtifactId());
+        putIfNotNull(properties, "version", model.getVersion());
+        for (String prefix : new String[]{"project.", "pom."}) {
+            putIfNotNull(properties, prefix + "groupId", model.getGroupId());
+            putIfNotNull(properties, prefix + "artifactId", model.getArtifactId());
+            putIfNotNull(properties, prefix + "version", model.getVersion());
+        }
+        PomModel.Parent parent = model.getParent();
+        if (parent != null) {
+            properties.put("project.parent.groupId", parent.getGroupId());
+            properties.put("project.parent.artifactId", parent.getArtifactId());
+            properties.put("project.parent.version", parent.getVersion());
+        }
+        return properties;
+    }
+
+    private static void putIfNotNull(Map<String, String> properties, String key, String value) {
+        if (value != null) {
+            properties.put(key, value);
+        }
+    }
+
+    private static PomDependency interpolate(PomDependency dependency, Map<String, String> properties) {
+        return new PomDependency(
+                interpolate(dependency.getGroupId(), properties),
+                interpolate(dependency.getArtifactId(), properties),
+                interpolate(dependency.getVersion(), properties),
+                interpolate(dependency.getClassifier(), properties),
+                dependency.getType(),
+                dependency.isScopeDeclared() ? dependency.getScope() : null,
+                dependency.isOptional(),
+                dependency.getExclusions()
+        );
+    }
+
+    /**
+     * Replaces {@code ${property}} references, unknown properties are left as they are.
+     */
+    static String interpolate(String value, Map<String, String> properties) {
+        for (int depth = 0; value != null && value.contains("${") && depth < MAX_INTERPOLATION_DEPTH; depth++) {
+            StringBuilder builder = new StringBuilder(value.length());
+            int index = 0;
+            boolean replaced = false;
+            int start;
+            while ((start = value.indexOf("${", index)) != -1) {
+                int end = value.indexOf('}', start);
+                if (end == -1) {
+                    break;
+                }
+                String replacement = properties.get(value.substring(start + 2, end));
+                builder.append(value, index, start).append(replacement != null ? replacement : value.substring(start, end + 1));
+                replaced |= replacement != null;
+                index = end + 1;
+            }
+            if (!replaced) {
+                break;
+            }
+            value = builder.append(value, index, value.length()).toString();
+        }
+        return value;
+    }
+
+    private static PomDependency applyManagement(PomDependency dependency, PomDependency managed) {
+        if (managed == null) {
+            return dependency;
+        }
+        return new PomDependency(
+                dependency.getGroupId(),
+                dependency.getArtifactId(),
+                dependency.getVersion() != null ? dependency.getVersion() : managed.getVersion(),
+                dependency.getClassifier(),
+                dependency.getType(),
+                dependency.isScopeDeclared() ? dependency.getScope() : (managed.isScopeDeclared() ? managed.getScope() : null),
+                dependency.isOptional(),
+                dependency.getExclusions().isEmpty() ? managed.getExclusions() : dependency.getExclusions()
+        );
+    }
+
+    private static String getManagementKey(PomDependency dependency) {
+        return dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getType()
+                + (dependency.getClassifier() != null ? ":" + dependency.getClassifier() : "");
+    }
+
+    private Path getCachePath(String key) {
+        return cacheDirectory.resolve(key.replace(':', '_') + ".properties");
+    }
+
+    private PomModel readCached(String key) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        Path path = getCachePath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            properties.load(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!String.valueOf(FORMAT_VERSION).equals(properties.getProperty("format"))) {
+            return null;
+        }
+
+        try {
+            PomModel model = new PomModel();
+            model.setGroupId(properties.getProperty("groupId"));
+            model.setArtifactId(properties.getProperty("artifactId"));
+            model.setVersion(properties.getProperty("version"));
+            model.setPackaging(properties.getProperty("packaging"));
+            String parent = properties.getProperty("parent");
+            if (parent != null) {
+                String[] parts = parent.split(":");
+                model.setParent(new PomModel.Parent(parts[0], parts[1], parts[2]));
+            }
+            int propertyCount = Integer.parseInt(properties.getProperty("properties"));
+            for (int index = 0; index < propertyCount; index++) {
+                model.addProperty(properties.getProperty("property." + index + ".name"), properties.getProperty("property." + index + ".value"));
+            }
+            int managedCount = Integer.parseInt(properties.getProperty("managed"));
+            for (int index = 0; index < managedCount; index++) {
+                model.addManagedDependency(decode(properties.getProperty("managed." + index)));
+            }
+            int dependencyCount = Integer.parseInt(properties.getProperty("dependencies"));
+            for (int index = 0; index < dependencyCount; index++) {
+                model.addDependency(decode(properties.getProperty("dependency." + index)));
+            }
+            return model;
+        } catch (RuntimeException e) {
+            // Corrupt, parsed again
+            return null;
+        }
+    }
+
+    private void writeCached(String key, PomModel model) {
+        if (cacheDirectory == null) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("format", String.valueOf(FORMAT_VERSION));
+        setIfNotNull(properties, "groupId", model.getGroupId());
+        setIfNotNull(properties, "artifactId", model.getArtifactId());
+        setIfNotNull(properties, "version", model.getVersion());
+        setIfNotNull(properties, "packaging", model.getPackaging());
+        if (model.getParent() != null) {
+            properties.setProperty("parent", model.getParent().toString());
+        }
+        int index = 0;
+        for (Map.Entry<String, String> property : model.getProperties().entrySet()) {
+            properties.setProperty("property." + index + ".name", property.getKey());
+            properties.setProperty("property." + index + ".value", property.getValue());
+            index++;
+        }
+        properties.setProperty("properties", String.valueOf(index));
+        List<PomDependency> managed = model.getDependencyManagement();
+        properties.setProperty("managed", String.valueOf(managed.size()));
+        for (index = 0; index < managed.size(); index++) {
+            properties.setProperty("managed." + index, encode(managed.get(index)));
+        }
+        List<PomDependency> dependencies = model.getDependencies();
+        properties.setProperty("dependencies", String.valueOf(dependencies.size()));
+        for (index = 0; index < dependencies.size(); index++) {
+            properties.setProperty("dependency." + index, encode(dependencies.get(index)));
+        }
+
+        try {
+            FileUtils.store(getCachePath(key), properties, "Inherited pom of " + key);
+        } catch (IOException ignored) {
+            // Only makes the next start faster
+        }
+    }
+
+    private static void setIfNotNull(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static String encode(PomDependency dependency) {
+        return dependency.getGroupId() + "\t" + dependency.getArtifactId()
+                + "\t" + (dependency.getVersion() != null ? dependency.getVersion() : "")
+                + "\t" + (dependency.getClassifier() != null ? dependency.getClassifier() : "")
+                + "\t" + dependency.getType()
+                + "\t" + (dependency.isScopeDeclared() ? dependency.getScope().name() : "")
+                + "\t" + dependency.isOptional()
+                + "\t" + String.join(",", dependency.getExclusions());
+    }
+
+    private static PomDependency decode(String value) {
+        String[] parts = value.split("\t", -1);
+        Set<String> exclusions = new HashSet<>();
+        if (!parts[7].isEmpty()) {
+            exclusions.addAll(Arrays.asList(parts[7].split(",")));
+        }
+        return new PomDependency(parts[0], parts[1],
+                parts[2].isEmpty() ? null : parts[2],
+                parts[3].isEmpty() ? null : parts[3],
+                parts[4],
+                parts[5].isEmpty() ? null : DependencyScope.valueOf(parts[5]),
+                Boolean.parseBoolean(parts[6]),
+                exclusions);
+    }
+}
@@ -19,18 +19,21 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 
 public class PomManager {
-    private final DocumentBuilder builder;
-    private final Repository repo;
-    private final PomMavenObject pom;
-    private final DependencyManager manager;
-
-    {
+    private static final DocumentBuilderFactory FACTORY = DocumentBuilderFactory.newInstance();
+    // DocumentBuilders are not thread-safe, but can be reused after a parse
+    private static final ThreadLocal<DocumentBuilder> BUILDER = ThreadLocal.withInitial(() -> {
         try {
-            builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            synchronized (FACTORY) {
+                return FACTORY.newDocumentBuilder();
+            }
         } catch (ParserConfigurationException e) {
             throw new RuntimeException(e);
         }
-    }
+    });
+
+    private final Repository repo;
+    private final PomMavenObject pom;
+    private final DependencyManager manager;
 
     public PomManager(Repository repo, PomMavenObject pom, DependencyManager manager) {
         this.repo = repo;
@@ -39,41 +42,97 @@ public class PomManager {
     }
 
     public void downloadPom() throws MalformedURLException {
+        downloadPom(manager.getDependencyPathProvider().getDependencyPath(pom, Collections.emptySet()));
+    }
+
+    /**
+     * Downloads the pom into the provided file.
+     *
+     * @param target the file to download the pom into
+     * @throws MalformedURLException if the url of the pom is invalid
+     */
+    public void downloadPom(Path target) throws MalformedURLException {
         URL url = repo.createURL(pom);
-        DependencyPathProvider pathProvider = manager.getDependencyPathProvider();
         try {
-            manager.getDownloader().downloadFile(url, pathProvider.getDependencyPath(pom, Collections.emptySet()));
+            manager.getDownloader().downloadFile(url, target);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to download pom (" + pom + ")", e);
         }
     }
 
     public void downloadPomHash() throws MalformedURLException {
+        downloadPomHash(manager.getDependencyPathProvider().getDependencyHashPath(pom));
+    }
+
+    /**
+     * Downloads the hash of the pom into the provided file.
+     *
+     * @param target the file to download the hash into
+     * @throws MalformedURLException if the url of the hash is invalid
+     */
+    public void downloadPomHash(Path target) throws MalformedURLException {
         URL url = repo.createHashURL(pom);
-        DependencyPathProvider pathProvider = manager.getDependencyPathProvider();
         try {
-            manager.getDownloader().downloadFile(url, pathProvider.getDependencyHashPath(pom));
+            manager.getDownloader().downloadFile(url, target);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to download pom (" + pom + ")", e);
         }
     }
 
     public boolean checkPomHash() throws NoSuchAlgorithmException, IOException {
-        Path pomPath = manager.getDependencyPathProvider().getDependencyPath(pom, Collections.emptySet());
-        Path pomHashPath = manager.getDependencyPathProvider().getDependencyHashPath(pom);
+        DependencyPathProvider pathProvider = manager.getDependencyPathProvider();
+        return checkPomHash(pathProvider.getDependencyPath(pom, Collections.emptySet()), pathProvider.getDependencyHashPath(pom));
+    }
+
+    /**
+     * Checks the hash of the provided pom file, the hash is downloaded into the provided hash file if it does not exist.
+     *
+     * @param pomPath     the pom file
+     * @param pomHashPath the hash file
+     * @return {@code true} if the hash of the pom file matches
+     * @throws NoSuchAlgorithmException if the hashing algorithm is not available
+     * @throws IOException              if reading the files fails
+     */
+    public boolean checkPomHash(Path pomPath, Path pomHashPath) throws NoSuchAlgorithmException, IOException {
         String pomFileHash = HashUtils.getFileHash(pomPath, pom.getHashingAlgorithm());
 
         if (pom.getHash() != null) return pomFileHash.equals(pom.getHash());
 
         if (!pomHashPath.toFile().exists()) {
-            downloadPomHash();
+            downloadPomHash(pomHashPath);
         }
         String hash = HashUtils.readFile(pomHashPath);
         return pomFileHash.equals(hash);
     }
 
     public PomParser parse() throws IOException, SAXException {
-        Document parse = builder.parse(manager.getDependencyPathProvider().getDependencyPath(pom, Collections.emptySet()).toFile());
-        return new PomParser(parse);
+        DocumentBuilder builder = BUILDER.get();
+        try {
+            Document parse = builder.parse(manager.getDependencyPathProvider().getDependencyPath(pom, Collections.emptySet()).toFile());
+            return new PomParser(parse);
+        } finally {
+            builder.reset();
+        }
+    }
+
+    /**
+     * Parses the downloaded pom with the {@link StreamingPomParser}.
+     *
+     * @return the parsed pom
+     * @throws IOException if reading or parsing the pom fails
+     */
+    public PomModel parseModel() throws IOException {
+        return parseModel(manager.getDependencyPathProvider().getDependencyPath(pom, Collections.emptySet()));
+    }
+
+    /**
+     * Parses the provided pom file with the {@link StreamingPomParser}.
+     *
+     * @param pomPath the pom file
+     * @return the parsed pom
+     * @throws IOException if reading or parsing the pom fails
+     */
+    public PomModel parseModel(Path pomPath) throws IOException {
+        return StreamingPomParser.parse(pomPath);
     }
 }
@@ -0,0 +1,178 @@
+package cc.maxmc.dependencydownload.pom;
+
+import cc.maxmc.dependencydownload.resolve.PomDependency;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a pom needed to resolve dependencies: the coordinates, the parent, the properties,
+ * the dependency management and the dependencies. Values are as they are written in the pom, without interpolation.
+ *
+ * @see StreamingPomParser
+ */
+@SuppressWarnings("unused") // API
+public class PomModel {
+
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private String packaging;
+    private Parent parent;
+    private final Map<String, String> properties = new LinkedHashMap<>();
+    private final List<PomDependency> dependencyManagement = new ArrayList<>();
+    private final List<PomDependency> dependencies = new ArrayList<>();
+
+    /**
+     * The group id, may be inherited from the parent.
+     *
+     * @return the declared group id or {@code null}
+     */
+    @Nullable
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * The artifact id.
+     *
+     * @return the declared artifact id or {@code null}
+     */
+    @Nullable
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * The version, may be inherited from the parent.
+     *
+     * @return the declared version or {@code null}
+     */
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * The packaging.
+     *
+     * @return the declared packaging or {@code null} if it is the default ({@code jar})
+     */
+    @Nullable
+    public String getPackaging() {
+        return packaging;
+    }
+
+    /**
+     * The parent pom.
+     *
+     * @return the parent or {@code null} if this pom has no parent
+     */
+    @Nullable
+    public Parent getParent() {
+        return parent;
+    }
+
+    /**
+     * The properties declared in this pom.
+     *
+     * @return an unmodifiable map of properties, in declaration order
+     */
+    @NotNull
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * The dependencies declared in the dependency management of this pom.
+     *
+     * @return an unmodifiable list of managed dependencies, in declaration order
+     */
+    @NotNull
+    public List<PomDependency> getDependencyManagement() {
+        return Collections.unmodifiableList(dependencyManagement);
+    }
+
+    /**
+     * The dependencies declared by this pom.
+     *
+     * @return an unmodifiable list of dependencies, in declaration order
+     */
+    @NotNull
+    public List<PomDependency> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    void setVersion(String version) {
+        this.version = version;
+    }
+
+    void setPackaging(String packaging) {
+        this.packaging = packaging;
+    }
+
+    void setParent(Parent parent) {
+        this.parent = parent;
+    }
+
+    void addProperty(String name, String value) {
+        properties.put(name, value);
+    }
+
+    void addManagedDependency(PomDependency dependency) {
+        dependencyManagement.add(dependency);
+    }
+
+    void addDependency(PomDependency dependency) {
+        dependencies.add(dependency);
+    }
+
+    /**
+     * The parent of a pom.
+     */
+    public static class Parent {
+
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+
+        public Parent(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+        }
+
+        @NotNull
+        public String getGroupId() {
+            return groupId;
+        }
+
+        @NotNull
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        @NotNull
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+    }
+}
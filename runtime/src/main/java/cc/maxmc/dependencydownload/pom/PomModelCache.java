@@ -0,0 +1,65 @@
+package cc.maxmc.dependencydownload.pom;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A bounded least-recently-used cache of {@link PomModel}s, which loads every missing model once even when it is requested concurrently.
+ */
+final class PomModelCache {
+
+    private final Map<String, PomModel> models;
+    private final Map<String, CompletableFuture<PomModel>> loading = new ConcurrentHashMap<>();
+
+    PomModelCache(int maxSize) {
+        this.models = new LinkedHashMap<String, PomModel>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PomModel> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    PomModel get(String key, Loader loader) throws Exception {
+        synchronized (models) {
+            PomModel model = models.get(key);
+            if (model != null) {
+                return model;
+            }
+        }
+
+        CompletableFuture<PomModel> future = new CompletableFuture<>();
+        CompletableFuture<PomModel> existing = loading.putIfAbsent(key, future);
+        if (existing == null) {
+            try {
+                PomModel model = loader.load();
+                synchronized (models) {
+                    models.put(key, model);
+                }
+                future.complete(model);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                loading.remove(key, future);
+            }
+        } else {
+            future = existing;
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    @FunctionalInterface
+    interface Loader {
+
+        PomModel load() throws Exception;
+    }
+}
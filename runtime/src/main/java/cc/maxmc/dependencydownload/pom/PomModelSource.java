@@ -0,0 +1,21 @@
+package cc.maxmc.dependencydownload.pom;
+
+import cc.maxmc.dependencydownload.dependency.PomMavenObject;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Provides the parsed pom of a maven object, for example by downloading it from a repository.
+ */
+@FunctionalInterface
+public interface PomModelSource {
+
+    /**
+     * Gets the pom of the provided maven object, as it is written.
+     *
+     * @param pom the pom
+     * @return the parsed pom
+     * @throws Exception if the pom cannot be retrieved or parsed
+     */
+    @NotNull
+    PomModel getModel(@NotNull PomMavenObject pom) throws Exception;
+}
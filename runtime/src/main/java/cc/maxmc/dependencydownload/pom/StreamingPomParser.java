@@ -0,0 +1,273 @@
+package cc.maxmc.dependencydownload.pom;
+
+import cc.maxmc.dependencydownload.resolve.PomDependency;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A pom parser that streams the pom with StAX, reading only the sections needed to resolve dependencies into a {@link PomModel}.
+ * <p>
+ * Other sections (like {@code build} and {@code profiles}) are skipped without being materialized.
+ * The sections may be in any order, so the whole pom is read.
+ */
+@SuppressWarnings("unused") // API
+public final class StreamingPomParser {
+
+    // Thread-safe once configured
+    private static final XMLInputFactory FACTORY;
+
+    static {
+        FACTORY = XMLInputFactory.newInstance();
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private StreamingPomParser() {
+    }
+
+    /**
+     * Parses the provided pom file.
+     *
+     * @param path the pom file
+     * @return the parsed pom
+     * @throws IOException if reading or parsing the pom fails
+     */
+    @NotNull
+    public static PomModel parse(@NotNull Path path) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path))) {
+            return parse(inputStream);
+        }
+    }
+
+    /**
+     * Parses the provided pom, the stream is not closed.
+     *
+     * @param inputStream the pom
+     * @return the parsed pom
+     * @throws IOException if reading or parsing the pom fails
+     */
+    @NotNull
+    public static PomModel parse(@NotNull InputStream inputStream) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.createXMLStreamReader(inputStream);
+            return parseProject(reader);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse pom", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    private static PomModel parseProject(XMLStreamReader reader) throws XMLStreamException {
+        PomModel model = new PomModel();
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !reader.getLocalName().equals("project")) {
+            throw new XMLStreamException("Not a pom, the root element is not project", reader.getLocation());
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "groupId":
+                    model.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    model.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    model.setVersion(text(reader));
+                    break;
+                case "packaging":
+                    model.setPackaging(text(reader));
+                    break;
+                case "parent":
+                    model.setParent(parseParent(reader));
+                    break;
+                case "properties":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        model.addProperty(reader.getLocalName(), text(reader));
+                    }
+                    break;
+                case "dependencyManagement":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if (reader.getLocalName().equals("dependencies")) {
+                            parseDependencies(reader, model, true);
+                        } else {
+                            skip(reader);
+                        }
+                    }
+                    break;
+                case "dependencies":
+                    parseDependencies(reader, model, false);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+        return model;
+    }
+
+    private static PomModel.Parent parseParent(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "groupId":
+                    groupId = text(reader);
+                    break;
+                case "artifactId":
+                    artifactId = text(reader);
+                    break;
+                case "version":
+                    version = text(reader);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+        if (groupId == null || artifactId == null || version == null) {
+            throw new XMLStreamException("Incomplete parent", reader.getLocation());
+        }
+        return new PomModel.Parent(groupId, artifactId, version);
+    }
+
+    private static void parseDependencies(XMLStreamReader reader, PomModel model, boolean managed) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!reader.getLocalName().equals("dependency")) {
+                skip(reader);
+                continue;
+            }
+
+            PomDependency dependency = parseDependency(reader);
+            if (dependency == null) {
+                continue;
+            }
+            if (managed) {
+                model.addManagedDependency(dependency);
+            } else {
+                model.addDependency(dependency);
+            }
+        }
+    }
+
+    private static PomDependency parseDependency(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        String classifier = null;
+        String type = "jar";
+        String scope = null;
+        boolean optional = false;
+        Set<String> exclusions = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "groupId":
+                    groupId = text(reader);
+                    break;
+                case "artifactId":
+                    artifactId = text(reader);
+                    break;
+                case "version":
+                    version = text(reader);
+                    break;
+                case "classifier":
+                    classifier = text(reader);
+                    break;
+                case "type":
+                    type = text(reader);
+                    break;
+                case "scope":
+                    scope = text(reader);
+                    break;
+                case "optional":
+                    optional = "true".equals(text(reader));
+                    break;
+                case "exclusions":
+                    exclusions = new HashSet<>();
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if (reader.getLocalName().equals("exclusion")) {
+                            exclusions.add(parseExclusion(reader));
+                        } else {
+                            skip(reader);
+                        }
+                    }
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+        if (groupId == null || artifactId == null) {
+            return null;
+        }
+
+        DependencyScope dependencyScope = null;
+        if (scope != null) {
+            try {
+                dependencyScope = DependencyScope.valueOf(scope.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Not a maven scope, nothing to download
+                return null;
+            }
+        }
+        return new PomDependency(groupId, artifactId, version, classifier, type, dependencyScope, optional, exclusions);
+    }
+
+    private static String parseExclusion(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = "*";
+        String artifactId = "*";
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "groupId":
+                    groupId = text(reader);
+                    break;
+                case "artifactId":
+                    artifactId = text(reader);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+        return groupId + ":" + artifactId;
+    }
+
+    private static String text(XMLStreamReader reader) throws XMLStreamException {
+        return reader.getElementText().trim();
+    }
+
+    /**
+     * Skips the current element and its children, leaves the reader at its end element.
+     */
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
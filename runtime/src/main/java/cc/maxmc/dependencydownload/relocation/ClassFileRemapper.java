@@ -0,0 +1,135 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Relocates a class file by rewriting the {@code Utf8} entries of its constant pool, all class names, descriptors
+ * and signatures of a class are referenced from there. The rest of the class file is copied as-is.
+ */
+final class ClassFileRemapper {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    private ClassFileRemapper() {
+    }
+
+    /**
+     * Remaps the provided class file.
+     *
+     * @param remapper the remapper
+     * @param data     the class file
+     * @return the remapped class file or {@code null} if it did not change
+     * @throws IOException if the class file is malformed
+     */
+    @Nullable
+    static byte[] remap(RelocationRemapper remapper, byte[] data) throws IOException {
+        if (data.length < 10 || readInt(data, 0) != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+
+        int count = readUnsignedShort(data, 8);
+        int offset = 10;
+        ByteArrayOutputStream output = null;
+        DataOutputStream dataOutput = null;
+        int copied = 0;
+        for (int index = 1; index < count; index++) {
+            int tag = data[offset] & 0xFF;
+            switch (tag) {
+                case UTF8: {
+                    int length = readUnsignedShort(data, offset + 1);
+                    int end = offset + 3 + length;
+                    if (end > data.length) {
+                        throw new IOException("Truncated class file");
+                    }
+                    if (remapper.mayContain(data, offset + 3, length)) {
+                        String value = new DataInputStream(new ByteArrayInputStream(data, offset + 1, length + 2)).readUTF();
+                        String mapped = remapper.mapValue(value);
+                        if (mapped != null) {
+                            if (output == null) {
+                                output = new ByteArrayOutputStream(data.length + 256);
+                                dataOutput = new DataOutputStream(output);
+                            }
+                            output.write(data, copied, offset + 1 - copied);
+                            dataOutput.writeUTF(mapped);
+                            copied = end;
+                        }
+                    }
+                    offset = end;
+                    break;
+                }
+                case CLASS:
+                case STRING:
+                case METHOD_TYPE:
+                case MODULE:
+                case PACKAGE:
+                    offset += 3;
+                    break;
+                case METHOD_HANDLE:
+                    offset += 4;
+                    break;
+                case INTEGER:
+                case FLOAT:
+                case FIELD_REF:
+                case METHOD_REF:
+                case INTERFACE_METHOD_REF:
+                case NAME_AND_TYPE:
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    offset += 5;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    offset += 9;
+                    // Takes up two entries
+                    index++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + " at offset " + offset);
+            }
+            if (offset > data.length) {
+                throw new IOException("Truncated class file");
+            }
+        }
+
+        if (output == null) {
+            return null;
+        }
+        output.write(data, copied, data.length - copied);
+        return output.toByteArray();
+    }
+
+    private static int readUnsignedShort(byte[] data, int offset) throws IOException {
+        if (offset + 2 > data.length) {
+            throw new IOException("Truncated class file");
+        }
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16) | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+}
@@ -14,6 +14,7 @@ public class DefaultRelocationProvider implements IRelocationProvider {
     private final Method relocatorRunMethod;
 
     private final Constructor<?> relocationConstructor;
+    private final String version;
 
     public DefaultRelocationProvider(ClassLoader classLoader) {
         try {
@@ -23,6 +24,10 @@ public class DefaultRelocationProvider implements IRelocationProvider {
 
             Class<?> relocationClass = classLoader.loadClass("me.lucko.jarrelocator.Relocation");
             this.relocationConstructor = relocationClass.getConstructor(String.class, String.class, Collection.class, Collection.class);
+
+            Package relocatorPackage = relocatorClass.getPackage();
+            String implementationVersion = relocatorPackage != null ? relocatorPackage.getImplementationVersion() : null;
+            this.version = "jar-relocator/" + (implementationVersion != null ? implementationVersion : "unknown");
         } catch (ClassNotFoundException | NoSuchMethodException e) {
             throw new RuntimeException("Failed to load jar-relocator from the provided ClassLoader", e);
         }
@@ -44,4 +49,9 @@ public class DefaultRelocationProvider implements IRelocationProvider {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
 }
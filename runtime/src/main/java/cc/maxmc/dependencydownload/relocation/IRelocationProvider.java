@@ -1,5 +1,7 @@
 package cc.maxmc.dependencydownload.relocation;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.nio.file.Path;
 import java.util.Set;
 
@@ -13,4 +15,30 @@ public interface IRelocationProvider {
      * @param relocations relocation to relocate the jar
      */
     void run(Path from, Path to, Set<Relocation> relocations);
+
+    /**
+     * relocate a jar file with give {@link Relocation}s, the provider may reuse the parts of the previous version
+     * of the jar that did not change instead of relocating them again.
+     *
+     * @param from        where is the jar file
+     * @param to          where will the relocated jar output
+     * @param relocations relocation to relocate the jar
+     * @param previous    the previous version of the jar relocated by this provider with the same relocations, if any
+     */
+    default void run(Path from, Path to, Set<Relocation> relocations, @Nullable Path previous) {
+        run(from, to, relocations);
+    }
+
+    /**
+     * Identifies the output of this provider, jars relocated by a {@link RelocationCache} are only reused
+     * by providers with the same version.
+     *
+     * @return the version of this provider
+     */
+    default String getVersion() {
+        String name = getClass().getName();
+        // The names of lambda classes differ between runs
+        int lambda = name.indexOf("$$Lambda");
+        return lambda != -1 ? name.substring(0, lambda) : name;
+    }
 }
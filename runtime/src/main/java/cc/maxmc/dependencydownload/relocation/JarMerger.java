@@ -0,0 +1,308 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Merges jars into a single jar, so a class loader only has to look in one jar instead of every jar in order.
+ * <p>
+ * Entries are copied without inflating and deflating them again, in the order of the jars. The service files in
+ * {@code META-INF/services} are merged, the manifests, signatures and module descriptors of the jars are left out.
+ * The merged jar is only merged again when the jars (their paths, sizes and last modified times) or the
+ * {@link DuplicatePolicy} changed, which is tracked in a {@code .properties} file next to it.
+ */
+@SuppressWarnings("unused") // API
+public class JarMerger {
+
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+    // 1980-01-01 00:00, the earliest MS-DOS time, so merging the same jars gives the same merged jar
+    private static final int DOS_TIME = (1 << 21) | (1 << 16);
+    // Increase when the merged jars change, so they are merged again
+    private static final int VERSION = 1;
+
+    private final Path jar;
+    private final DuplicatePolicy duplicatePolicy;
+
+    /**
+     * Creates a jar merger that keeps the first of duplicate entries.
+     *
+     * @param jar the merged jar
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public JarMerger(@NotNull Path jar) {
+        this(jar, DuplicatePolicy.FIRST);
+    }
+
+    /**
+     * Creates a jar merger.
+     *
+     * @param jar             the merged jar
+     * @param duplicatePolicy what to do with entries that are in multiple jars
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public JarMerger(@NotNull Path jar, @NotNull DuplicatePolicy duplicatePolicy) {
+        this.jar = jar;
+        this.duplicatePolicy = duplicatePolicy;
+    }
+
+    /**
+     * The merged jar.
+     *
+     * @return the path of the merged jar
+     */
+    @NotNull
+    public Path getJar() {
+        return jar;
+    }
+
+    /**
+     * What is done with entries that are in multiple jars.
+     *
+     * @return the duplicate policy
+     */
+    @NotNull
+    public DuplicatePolicy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+
+    /**
+     * Merges the provided jars, unless the merged jar was already merged from the same jars.
+     *
+     * @param jars the jars to merge, in classpath order
+     * @return the merged jar
+     * @throws IOException if reading the jars or writing the merged jar fails, or the jars contain conflicting
+     * classes with {@link DuplicatePolicy#FAIL}
+     */
+    @NotNull
+    public Path merge(@NotNull List<Path> jars) throws IOException {
+        String inputs = digest(jars);
+        Path metadataFile = jar.resolveSibling(jar.getFileName() + ".properties");
+        Properties metadata = load(metadataFile);
+        if (metadata != null && inputs.equals(metadata.getProperty("inputs")) && Files.exists(jar)
+                && Long.toString(Files.size(jar)).equals(metadata.getProperty("size"))) {
+            return jar;
+        }
+
+        Path parent = jar.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, jar.getFileName().toString(), ".tmp");
+        List<String> duplicates;
+        try {
+            duplicates = write(jars, temporary);
+            // Removed first, so it never describes a different merged jar
+            Files.deleteIfExists(metadataFile);
+            FileUtils.move(temporary, jar);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        metadata = new Properties();
+        metadata.setProperty("inputs", inputs);
+        metadata.setProperty("count", Integer.toString(jars.size()));
+        metadata.setProperty("duplicatePolicy", duplicatePolicy.name());
+        metadata.setProperty("duplicates", String.join("\n", duplicates));
+        metadata.setProperty("size", Long.toString(Files.size(jar)));
+        FileUtils.store(metadataFile, metadata, "Merged jar");
+        return jar;
+    }
+
+    /**
+     * Writes the merged jar.
+     *
+     * @return the names of the duplicate entries that were left out, that differ from the entry that was kept
+     */
+    private List<String> write(List<Path> jars, Path target) throws IOException {
+        List<RawZipReader> readers = new ArrayList<>(jars.size());
+        try {
+            boolean multiRelease = false;
+            for (Path path : jars) {
+                RawZipReader reader = new RawZipReader(path);
+                readers.add(reader);
+                for (RawZipReader.Entry entry : reader.getEntries()) {
+                    if (entry.name.equals(MANIFEST)) {
+                        multiRelease |= isMultiRelease(reader.read(entry));
+                    }
+                }
+            }
+
+            List<String> duplicates = new ArrayList<>();
+            Map<String, RawZipReader.Entry> written = new HashMap<>();
+            Map<String, Set<String>> services = new LinkedHashMap<>();
+            try (RawZipWriter writer = new RawZipWriter(target)) {
+                writer.write(RawZipWriter.deflate(MANIFEST, DOS_TIME, manifest(multiRelease)));
+
+                for (int index = 0; index < readers.size(); index++) {
+                    RawZipReader reader = readers.get(index);
+                    for (RawZipReader.Entry entry : reader.getEntries()) {
+                        String name = entry.name;
+                        if (isExcluded(name)) {
+                            continue;
+                        }
+                        if (name.startsWith(SERVICES_PREFIX) && !entry.isDirectory() && name.indexOf('/', SERVICES_PREFIX.length()) == -1) {
+                            readServices(reader.read(entry), services.computeIfAbsent(name, key -> new LinkedHashSet<>()));
+                            continue;
+                        }
+
+                        if (!written.containsKey(name)) {
+                            writer.write(RawZipWriter.Compressed.copyOf(reader, entry, name));
+                            written.put(name, entry);
+                            continue;
+                        }
+                        RawZipReader.Entry existing = written.get(name);
+                        if (entry.isDirectory() || (existing.crc == entry.crc && existing.size == entry.size)) {
+                            continue;
+                        }
+                        if (duplicatePolicy == DuplicatePolicy.FAIL && name.endsWith(".class")) {
+                            throw new IOException("Duplicate class " + name + " in " + jars.get(index) + " differs from an earlier jar");
+                        }
+                        // The class loader would only find the first one on a classpath of separate jars as well
+                        duplicates.add(name);
+                    }
+                }
+
+                for (Map.Entry<String, Set<String>> service : services.entrySet()) {
+                    StringBuilder builder = new StringBuilder();
+                    for (String implementation : service.getValue()) {
+                        builder.append(implementation).append('\n');
+                    }
+                    writer.write(RawZipWriter.deflate(service.getKey(), DOS_TIME, builder.toString().getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+            return duplicates;
+        } finally {
+            for (RawZipReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static boolean isExcluded(String name) {
+        if (name.equals(MANIFEST) || name.equals("META-INF/INDEX.LIST")) {
+            return true;
+        }
+        if (name.equals("module-info.class") || (name.startsWith("META-INF/versions/") && name.endsWith("/module-info.class"))) {
+            // Not used on the classpath, and every modular jar has one
+            return true;
+        }
+        if (!name.startsWith("META-INF/") || name.indexOf('/', "META-INF/".length()) != -1) {
+            return false;
+        }
+        // The signatures do not match the merged jar
+        return name.endsWith(".SF") || name.endsWith(".DSA") || name.endsWith(".RSA") || name.endsWith(".EC");
+    }
+
+    private static boolean isMultiRelease(byte[] data) {
+        try {
+            Manifest manifest = new Manifest(new ByteArrayInputStream(data));
+            return "true".equalsIgnoreCase(manifest.getMainAttributes().getValue("Multi-Release"));
+        } catch (IOException e) {
+            // Malformed, the jar is not multi-release for the class loader either
+            return false;
+        }
+    }
+
+    private static byte[] manifest(boolean multiRelease) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (multiRelease) {
+            attributes.put(new Attributes.Name("Multi-Release"), "true");
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        manifest.write(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static void readServices(byte[] data, Set<String> implementations) throws IOException {
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                int commentStart = line.indexOf('#');
+                String implementation = (commentStart != -1 ? line.substring(0, commentStart) : line).trim();
+                if (!implementation.isEmpty()) {
+                    implementations.add(implementation);
+                }
+            }
+        }
+    }
+
+    private String digest(List<Path> jars) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        update(digest, Integer.toString(VERSION));
+        update(digest, duplicatePolicy.name());
+        for (Path path : jars) {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            update(digest, path.toAbsolutePath().toString());
+            update(digest, attributes.size() + "," + attributes.lastModifiedTime().toMillis());
+        }
+        return HashUtils.getHash(digest);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    @Nullable
+    private static Properties load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        } catch (IllegalArgumentException e) {
+            // Malformed, merged again
+            return null;
+        }
+        return properties;
+    }
+
+    /**
+     * What is done with an entry that is in multiple jars with different contents.
+     * Directories and entries with the same contents are only included once either way.
+     */
+    public enum DuplicatePolicy {
+
+        /**
+         * Keeps the entry of the first jar, like a class loader with the jars on its classpath would find.
+         */
+        FIRST,
+
+        /**
+         * Fails if the entry is a class, other resources (like licenses) keep the entry of the first jar.
+         */
+        FAIL
+    }
+}
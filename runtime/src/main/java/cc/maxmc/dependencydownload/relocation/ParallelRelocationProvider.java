@@ -0,0 +1,277 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A {@link IRelocationProvider} that relocates jars without any libraries.
+ * <p>
+ * Classes are relocated by rewriting the class names, descriptors and signatures in their constant pools and
+ * service files by relocating the service and the implementations. Both are rewritten in parallel on a {@link ForkJoinPool},
+ * while the other entries are copied to the relocated jar without inflating and deflating them again.
+ * Optionally the relocated jars are not compressed, then compressed entries are inflated in parallel as well.
+ * Entries are written to the relocated jar in the order of the original jar, signatures of signed jars are removed.
+ */
+@SuppressWarnings("unused") // API
+public class ParallelRelocationProvider implements IRelocationProvider {
+
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+    // Increase when the relocated jars change, so jars in a RelocationCache are relocated again
+    private static final int VERSION = 2;
+
+    private final ForkJoinPool pool;
+    private final boolean compress;
+
+    /**
+     * Creates a relocation provider running on the {@link ForkJoinPool#commonPool() common pool}.
+     */
+    public ParallelRelocationProvider() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a relocation provider running on the provided pool.
+     *
+     * @param pool the pool to rewrite the classes on
+     */
+    public ParallelRelocationProvider(@NotNull ForkJoinPool pool) {
+        this(pool, true);
+    }
+
+    /**
+     * Creates a relocation provider running on the provided pool.
+     *
+     * @param pool     the pool to rewrite the classes on
+     * @param compress if the entries of relocated jars are compressed, if {@code false} they are stored uncompressed,
+     *                 which makes the jars larger but faster to load classes from
+     */
+    public ParallelRelocationProvider(@NotNull ForkJoinPool pool, boolean compress) {
+        this.pool = pool;
+        this.compress = compress;
+    }
+
+    @Override
+    public void run(Path from, Path to, Set<Relocation> relocations) {
+        run(from, to, relocations, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Classes and service files that did not change since the previous version are copied from the previous relocated jar,
+     * if it was relocated by this provider.
+     */
+    @Override
+    public void run(Path from, Path to, Set<Relocation> relocations, @Nullable Path previous) {
+        try {
+            relocate(from, to, relocations, previous);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to relocate " + from, e);
+        }
+    }
+
+    @Override
+    public String getVersion() {
+        return "parallel/" + VERSION + (compress ? "" : "/stored");
+    }
+
+    private void relocate(Path from, Path to, Set<Relocation> relocations, @Nullable Path previous) throws IOException {
+        RelocationRemapper remapper = new RelocationRemapper(relocations);
+        Path parent = to.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, to.getFileName().toString(), ".tmp");
+        RawZipReader previousReader = null;
+        try {
+            if (previous != null && Files.exists(previous)) {
+                try {
+                    previousReader = new RawZipReader(previous);
+                } catch (IOException ignored) {
+                    // Not a readable zip, relocated from scratch instead
+                }
+            }
+            try (RawZipReader reader = new RawZipReader(from);
+                 RawZipWriter writer = new RawZipWriter(temporary)) {
+                write(new Job(reader, previousReader, remapper, compress), writer);
+            }
+            FileUtils.move(temporary, to);
+        } finally {
+            if (previousReader != null) {
+                previousReader.close();
+            }
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void write(Job job, RawZipWriter writer) throws IOException {
+        List<RawZipReader.Entry> entries = job.reader.getEntries();
+        // Limits how many rewritten entries are held in memory while waiting to be written
+        int window = Math.max(2, pool.getParallelism() * 8);
+        Deque<ForkJoinTask<RawZipWriter.Compressed>> pending = new ArrayDeque<>(window);
+        Set<String> written = new HashSet<>();
+
+        int submitted = 0;
+        try {
+            for (int index = 0; index < entries.size(); index++) {
+                while (submitted < entries.size() && pending.size() < window) {
+                    RawZipReader.Entry next = entries.get(submitted++);
+                    ForkJoinTask<RawZipWriter.Compressed> task = ForkJoinTask.adapt(() -> job.rewrite(next));
+                    pending.add(needsRewrite(next) || job.needsInflate(next) ? pool.submit(task) : completed(task));
+                }
+
+                RawZipWriter.Compressed compressed = join(pending.poll());
+                if (compressed == null || !written.add(compressed.name)) {
+                    // Removed or a duplicate after relocating
+                    continue;
+                }
+                writer.write(compressed);
+            }
+        } finally {
+            for (ForkJoinTask<?> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private static boolean needsRewrite(RawZipReader.Entry entry) {
+        return !entry.isDirectory() && (entry.name.endsWith(".class") || entry.name.startsWith(SERVICES_PREFIX));
+    }
+
+    private static <T> ForkJoinTask<T> completed(ForkJoinTask<T> task) {
+        // Cheap enough to not be worth the hand-off to the pool
+        task.invoke();
+        return task;
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while relocating", e);
+        } catch (ExecutionException e) {
+            // Checked exceptions are wrapped by the task, and may be wrapped again when rethrown on another thread
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static boolean isSignature(String name) {
+        if (!name.startsWith("META-INF/") || name.indexOf('/', "META-INF/".length()) != -1) {
+            return false;
+        }
+        return name.endsWith(".SF") || name.endsWith(".DSA") || name.endsWith(".RSA") || name.endsWith(".EC");
+    }
+
+    /**
+     * Relocates the entries of a single jar.
+     */
+    private static final class Job {
+
+        private final RawZipReader reader;
+        private final RawZipReader previousReader;
+        /** The entries of the previous relocated jar that record what they were relocated from, by name */
+        private final Map<String, RawZipReader.Entry> previousEntries = new HashMap<>();
+        private final RelocationRemapper remapper;
+        private final boolean compress;
+
+        Job(RawZipReader reader, @Nullable RawZipReader previousReader, RelocationRemapper remapper, boolean compress) {
+            this.reader = reader;
+            this.previousReader = previousReader;
+            this.remapper = remapper;
+            this.compress = compress;
+            if (previousReader != null) {
+                for (RawZipReader.Entry entry : previousReader.getEntries()) {
+                    if (entry.sourceSize != -1) {
+                        previousEntries.put(entry.name, entry);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Relocates a single entry.
+         *
+         * @return the relocated entry or {@code null} if it is removed
+         */
+        RawZipWriter.Compressed rewrite(RawZipReader.Entry entry) throws IOException {
+            String name = entry.name;
+            if (isSignature(name)) {
+                return null;
+            }
+
+            String mappedName = remapper.mapEntryName(name);
+            String targetName = mappedName != null ? mappedName : name;
+            if (!needsRewrite(entry)) {
+                if (needsInflate(entry)) {
+                    return RawZipWriter.store(targetName, entry.dosTime, reader.read(entry));
+                }
+                return RawZipWriter.Compressed.copyOf(reader, entry, targetName);
+            }
+
+            boolean isClass = name.endsWith(".class");
+            if (!isClass) {
+                String mappedService = remapper.mapClass(name.substring(SERVICES_PREFIX.length()));
+                if (mappedService != null) {
+                    targetName = SERVICES_PREFIX + mappedService;
+                }
+            }
+
+            // Relocated the same way as in the previous version, as it did not change
+            RawZipReader.Entry previous = previousEntries.get(targetName);
+            if (previous != null && previous.sourceCrc == entry.crc && previous.sourceSize == entry.size
+                    && (compress || previous.method == RawZipReader.STORED)) {
+                return RawZipWriter.Compressed.copyOf(previousReader, previous, targetName).withSource(entry);
+            }
+
+            byte[] data = reader.read(entry);
+            byte[] mapped;
+            if (isClass) {
+                try {
+                    mapped = ClassFileRemapper.remap(remapper, data);
+                } catch (IOException e) {
+                    throw new IOException("Failed to relocate " + name, e);
+                }
+            } else {
+                mapped = remapper.mayContain(data, 0, data.length) ? remapper.remapServices(data) : null;
+            }
+
+            if (mapped == null && !needsInflate(entry)) {
+                return RawZipWriter.Compressed.copyOf(reader, entry, targetName).withSource(entry);
+            }
+            byte[] result = mapped != null ? mapped : data;
+            RawZipWriter.Compressed compressed = compress
+                    ? RawZipWriter.deflate(targetName, entry.dosTime, result)
+                    : RawZipWriter.store(targetName, entry.dosTime, result);
+            return compressed.withSource(entry);
+        }
+
+        /**
+         * Checks if the entry is compressed but the relocated jar is not, so it cannot be copied as-is.
+         */
+        boolean needsInflate(RawZipReader.Entry entry) {
+            return !compress && entry.method != RawZipReader.STORED;
+        }
+    }
+}
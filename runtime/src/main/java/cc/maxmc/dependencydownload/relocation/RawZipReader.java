@@ -0,0 +1,308 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a zip file through its central directory, giving access to the compressed data of the entries
+ * so they can be copied to another zip file without inflating and deflating them again.
+ * The reads are positional, so entries can be read from multiple threads at once.
+ */
+final class RawZipReader implements Closeable {
+
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_LENGTH = 22;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_LENGTH = 56;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+
+    /**
+     * The id of the extra field with the checksum and size of the entry that was relocated into an entry,
+     * only present in the central directory of jars written by {@link ParallelRelocationProvider}.
+     */
+    static final int SOURCE_EXTRA_ID = 0x6464;
+    static final int SOURCE_EXTRA_LENGTH = 12;
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final FileChannel channel;
+    private final List<Entry> entries;
+
+    RawZipReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.entries = readCentralDirectory();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The entries, in the order of the central directory.
+     */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Reads and inflates the data of the provided entry.
+     */
+    byte[] read(Entry entry) throws IOException {
+        byte[] raw = readRaw(entry);
+        if (entry.method == STORED) {
+            return raw;
+        }
+
+        if (entry.size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Entry " + entry.name + " is too large");
+        }
+        byte[] data = new byte[(int) entry.size];
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(raw);
+        try {
+            int length = 0;
+            while (length < data.length) {
+                int inflated = inflater.inflate(data, length, data.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != data.length) {
+                throw new IOException("Entry " + entry.name + " is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Entry " + entry.name + " is corrupt", e);
+        }
+        return data;
+    }
+
+    /**
+     * Reads the compressed data of the provided entry.
+     */
+    byte[] readRaw(Entry entry) throws IOException {
+        if (entry.compressedSize > Integer.MAX_VALUE - 8) {
+            throw new IOException("Entry " + entry.name + " is too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) entry.compressedSize);
+        readFully(buffer, dataOffset(entry));
+        return buffer.array();
+    }
+
+    /**
+     * Transfers the compressed data of the provided entry to the provided channel.
+     */
+    void transferRaw(Entry entry, WritableByteChannel target) throws IOException {
+        long position = dataOffset(entry);
+        long remaining = entry.compressedSize;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new EOFException("Unexpected end of zip file while copying " + entry.name);
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    private long dataOffset(Entry entry) throws IOException {
+        long dataOffset = entry.dataOffset;
+        if (dataOffset != -1) {
+            return dataOffset;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, entry.localHeaderOffset);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid local header for " + entry.name);
+        }
+        dataOffset = entry.localHeaderOffset + LOCAL_HEADER_LENGTH
+                + (header.getShort(26) & 0xFFFF)
+                + (header.getShort(28) & 0xFFFF);
+        entry.dataOffset = dataOffset;
+        return dataOffset;
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        long size = channel.size();
+        if (size < END_LENGTH) {
+            throw new IOException("Not a zip file");
+        }
+
+        // The end of central directory record is followed by a comment of at most 65535 bytes
+        int tailLength = (int) Math.min(size, END_LENGTH + 0xFFFF);
+        ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(tail, size - tailLength);
+        int end = -1;
+        for (int index = tailLength - END_LENGTH; index >= 0; index--) {
+            if (tail.getInt(index) == END_SIGNATURE) {
+                end = index;
+                break;
+            }
+        }
+        if (end == -1) {
+            throw new IOException("Not a zip file, no end of central directory record");
+        }
+
+        long count = tail.getShort(end + 10) & 0xFFFF;
+        long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        if (count == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+            // The values that do not fit are in the zip64 end of central directory record, found through the locator before the record
+            long locatorOffset = size - tailLength + end - ZIP64_LOCATOR_LENGTH;
+            if (locatorOffset < 0) {
+                throw new IOException("Invalid zip64 end of central directory locator");
+            }
+            ByteBuffer locator = ByteBuffer.allocate(ZIP64_LOCATOR_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(locator, locatorOffset);
+            if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+                throw new IOException("Invalid zip64 end of central directory locator");
+            }
+            long zip64EndOffset = locator.getLong(8);
+            if (zip64EndOffset < 0 || zip64EndOffset + ZIP64_END_LENGTH > locatorOffset) {
+                throw new IOException("Invalid zip64 end of central directory record");
+            }
+            ByteBuffer zip64End = ByteBuffer.allocate(ZIP64_END_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(zip64End, zip64EndOffset);
+            if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+                throw new IOException("Invalid zip64 end of central directory record");
+            }
+            count = zip64End.getLong(32);
+            directorySize = zip64End.getLong(40);
+            directoryOffset = zip64End.getLong(48);
+        }
+        if (count < 0 || directorySize < 0 || directoryOffset < 0 || directoryOffset + directorySize > size) {
+            throw new IOException("Invalid central directory");
+        }
+        if (directorySize > Integer.MAX_VALUE - 8) {
+            throw new IOException("Central directory is too large");
+        }
+
+        ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(directory, directoryOffset);
+        List<Entry> entries = new ArrayList<>((int) Math.min(count, directorySize / CENTRAL_HEADER_LENGTH));
+        int offset = 0;
+        for (int index = 0; index < count; index++) {
+            if (offset + CENTRAL_HEADER_LENGTH > directorySize || directory.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid central directory");
+            }
+            int flags = directory.getShort(offset + 8) & 0xFFFF;
+            int method = directory.getShort(offset + 10) & 0xFFFF;
+            int nameLength = directory.getShort(offset + 28) & 0xFFFF;
+            int extraLength = directory.getShort(offset + 30) & 0xFFFF;
+            int commentLength = directory.getShort(offset + 32) & 0xFFFF;
+            if (offset + CENTRAL_HEADER_LENGTH + nameLength > directorySize) {
+                throw new IOException("Invalid central directory");
+            }
+            String name = new String(directory.array(), offset + CENTRAL_HEADER_LENGTH, nameLength,
+                    (flags & 0x800) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+            if ((flags & 1) != 0) {
+                throw new IOException("Entry " + name + " is encrypted");
+            }
+            if (method != STORED && method != DEFLATED) {
+                throw new IOException("Entry " + name + " uses an unsupported compression method " + method);
+            }
+
+            if (directory.getInt(offset + 20) == -1 || directory.getInt(offset + 24) == -1 || directory.getInt(offset + 42) == -1) {
+                // The sizes or offset are in a zip64 extra field, only used for entries and files larger than 4 GiB
+                throw new IOException("Entry " + name + " is too large, zip64 entries are not supported");
+            }
+
+            Entry entry = new Entry(
+                    name,
+                    method,
+                    directory.getInt(offset + 12),
+                    directory.getInt(offset + 16),
+                    directory.getInt(offset + 20) & 0xFFFFFFFFL,
+                    directory.getInt(offset + 24) & 0xFFFFFFFFL,
+                    directory.getInt(offset + 42) & 0xFFFFFFFFL
+            );
+            readSourceExtra(directory, offset + CENTRAL_HEADER_LENGTH + nameLength, Math.min(extraLength, (int) directorySize - offset - CENTRAL_HEADER_LENGTH - nameLength), entry);
+            entries.add(entry);
+            offset += CENTRAL_HEADER_LENGTH + nameLength + extraLength + commentLength;
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    private static void readSourceExtra(ByteBuffer directory, int offset, int length, Entry entry) {
+        int end = offset + length;
+        while (offset + 4 <= end) {
+            int id = directory.getShort(offset) & 0xFFFF;
+            int size = directory.getShort(offset + 2) & 0xFFFF;
+            if (id == SOURCE_EXTRA_ID && size == SOURCE_EXTRA_LENGTH && offset + 4 + size <= end) {
+                entry.sourceCrc = directory.getInt(offset + 4);
+                entry.sourceSize = directory.getLong(offset + 8);
+                return;
+            }
+            offset += 4 + size;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of zip file");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static final class Entry {
+
+        final String name;
+        final int method;
+        /** The last modification time and date in the MS-DOS format, as they are stored in the zip file */
+        final int dosTime;
+        final int crc;
+        final long compressedSize;
+        final long size;
+        final long localHeaderOffset;
+        /** The checksum and size of the entry this entry was relocated from, or -1 if it is not known */
+        int sourceCrc;
+        long sourceSize = -1;
+        private volatile long dataOffset = -1;
+
+        Entry(String name, int method, int dosTime, int crc, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a zip file entry by entry, from data that is already compressed. The sizes and checksum of every entry
+ * are known before it is written, so no data descriptors are needed.
+ */
+final class RawZipWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_LENGTH = 56;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int UTF8_FLAG = 0x800;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private final FileChannel channel;
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private int count;
+
+    RawZipWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes an entry with its compressed data.
+     */
+    void write(Compressed entry) throws IOException {
+        writeHeader(entry);
+        if (entry.data != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(entry.data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } else {
+            entry.copyReader.transferRaw(entry.copyEntry, channel);
+        }
+    }
+
+    private void writeHeader(Compressed entry) throws IOException {
+        long offset = channel.position();
+        if (offset > 0xFFFFFFFFL || entry.compressedSize > 0xFFFFFFFFL || entry.size > 0xFFFFFFFFL) {
+            throw new IOException("Zip64 files are not supported");
+        }
+
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        int flags = name.length != entry.name.length() ? UTF8_FLAG : 0;
+        int version = entry.method == RawZipReader.DEFLATED ? 20 : 10;
+        int extraLength = entry.sourceSize != -1 ? 4 + RawZipReader.SOURCE_EXTRA_LENGTH : 0;
+
+        ByteBuffer header = ByteBuffer.allocate(30 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LOCAL_HEADER_SIGNATURE)
+                .putShort((short) version)
+                .putShort((short) flags)
+                .putShort((short) entry.method)
+                .putInt(entry.dosTime)
+                .putInt(entry.crc)
+                .putInt((int) entry.compressedSize)
+                .putInt((int) entry.size)
+                .putShort((short) name.length)
+                .putShort((short) 0)
+                .put(name)
+                .flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        ByteBuffer central = ByteBuffer.allocate(46 + name.length + extraLength).order(ByteOrder.LITTLE_ENDIAN);
+        central.putInt(CENTRAL_HEADER_SIGNATURE)
+                .putShort((short) 20)
+                .putShort((short) version)
+                .putShort((short) flags)
+                .putShort((short) entry.method)
+                .putInt(entry.dosTime)
+                .putInt(entry.crc)
+                .putInt((int) entry.compressedSize)
+                .putInt((int) entry.size)
+                .putShort((short) name.length)
+                .putShort((short) extraLength)
+                .putShort((short) 0) // comment
+                .putShort((short) 0) // disk
+                .putShort((short) 0) // internal attributes
+                .putInt(0) // external attributes
+                .putInt((int) offset)
+                .put(name);
+        if (extraLength != 0) {
+            central.putShort((short) RawZipReader.SOURCE_EXTRA_ID)
+                    .putShort((short) RawZipReader.SOURCE_EXTRA_LENGTH)
+                    .putInt(entry.sourceCrc)
+                    .putLong(entry.sourceSize);
+        }
+        centralDirectory.write(central.array(), 0, central.position());
+        count++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long offset = channel.position();
+            if (offset > 0xFFFFFFFFL) {
+                throw new IOException("Zip64 files are not supported");
+            }
+            // Only the number of entries can be too large for the end of central directory record
+            boolean zip64 = count >= 0xFFFF;
+            ByteBuffer end = ByteBuffer.allocate((zip64 ? ZIP64_END_LENGTH + ZIP64_LOCATOR_LENGTH : 0) + 22).order(ByteOrder.LITTLE_ENDIAN);
+            if (zip64) {
+                end.putInt(ZIP64_END_SIGNATURE)
+                        .putLong(ZIP64_END_LENGTH - 12)
+                        .putShort((short) 45)
+                        .putShort((short) 45)
+                        .putInt(0)
+                        .putInt(0)
+                        .putLong(count)
+                        .putLong(count)
+                        .putLong(centralDirectory.size())
+                        .putLong(offset)
+                        .putInt(ZIP64_LOCATOR_SIGNATURE)
+                        .putInt(0)
+                        .putLong(offset + centralDirectory.size())
+                        .putInt(1);
+            }
+            end.putInt(END_SIGNATURE)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) Math.min(count, 0xFFFF))
+                    .putShort((short) Math.min(count, 0xFFFF))
+                    .putInt(centralDirectory.size())
+                    .putInt((int) offset)
+                    .putShort((short) 0)
+                    .flip();
+
+            ByteBuffer directory = ByteBuffer.wrap(centralDirectory.toByteArray());
+            while (directory.hasRemaining()) {
+                channel.write(directory);
+            }
+            while (end.hasRemaining()) {
+                channel.write(end);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Compresses the provided data for an entry.
+     *
+     * @param name    the name of the entry
+     * @param dosTime the last modification time of the entry, in the MS-DOS format
+     * @param data    the uncompressed data
+     * @return the entry with its compressed data
+     */
+    static Compressed deflate(String name, int dosTime, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            output.write(buffer, 0, length);
+        }
+        byte[] compressed = output.toByteArray();
+        return new Compressed(name, RawZipReader.DEFLATED, dosTime, (int) crc.getValue(), compressed.length, data.length, compressed);
+    }
+
+    /**
+     * Creates an entry storing the provided data without compressing it.
+     *
+     * @param name    the name of the entry
+     * @param dosTime the last modification time of the entry, in the MS-DOS format
+     * @param data    the data
+     * @return the entry with its data
+     */
+    static Compressed store(String name, int dosTime, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return new Compressed(name, RawZipReader.STORED, dosTime, (int) crc.getValue(), data.length, data.length, data);
+    }
+
+    /**
+     * An entry to write, with the metadata of its compressed data.
+     */
+    static final class Compressed {
+
+        final String name;
+        final int method;
+        final int dosTime;
+        final int crc;
+        final long compressedSize;
+        final long size;
+        /** The compressed data or {@code null} if it is copied from another zip file */
+        final byte[] data;
+        final RawZipReader copyReader;
+        final RawZipReader.Entry copyEntry;
+        /** The checksum and size of the entry this entry was relocated from, or -1 if it is not known */
+        int sourceCrc;
+        long sourceSize = -1;
+
+        Compressed(String name, int method, int dosTime, int crc, long compressedSize, long size, byte[] data) {
+            this(name, method, dosTime, crc, compressedSize, size, data, null, null);
+        }
+
+        private Compressed(String name, int method, int dosTime, int crc, long compressedSize, long size, byte[] data,
+                           RawZipReader copyReader, RawZipReader.Entry copyEntry) {
+            this.name = name;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.data = data;
+            this.copyReader = copyReader;
+            this.copyEntry = copyEntry;
+        }
+
+        /**
+         * An entry with the compressed data of an entry of another zip file, optionally under a different name.
+         */
+        static Compressed copyOf(RawZipReader reader, RawZipReader.Entry entry, String name) {
+            return new Compressed(name, entry.method, entry.dosTime, entry.crc, entry.compressedSize, entry.size, null, reader, entry);
+        }
+
+        /**
+         * Records the entry this entry was relocated from.
+         */
+        Compressed withSource(RawZipReader.Entry source) {
+            this.sourceCrc = source.crc;
+            this.sourceSize = source.size;
+            return this;
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package cc.maxmc.dependencydownload.relocation;
 
+import cc.maxmc.dependencydownload.common.util.HashUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * A relocation.
@@ -44,6 +50,42 @@ public class Relocation {
         return excludes;
     }
 
+    /**
+     * A canonical form of this relocation, which is the same for equal relocations regardless of the order of the includes and excludes.
+     *
+     * @return the canonical form
+     */
+    @NotNull
+    public String getCanonicalForm() {
+        return pattern + ">" + shadedPattern + "+" + new TreeSet<>(includes) + "-" + new TreeSet<>(excludes);
+    }
+
+    /**
+     * Computes a digest of the provided relocations, which is the same for equal relocations in any order.
+     *
+     * @param relocations the relocations
+     * @return the SHA-256 digest of the canonical forms of the relocations, as hex
+     */
+    @NotNull
+    public static String digest(@NotNull Collection<Relocation> relocations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        TreeSet<String> sorted = new TreeSet<>();
+        for (Relocation relocation : relocations) {
+            sorted.add(relocation.getCanonicalForm());
+        }
+        for (String relocation : sorted) {
+            digest.update(relocation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return HashUtils.getHash(digest);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,203 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A content-addressed store of relocated jars, which can be shared by multiple {@link cc.maxmc.dependencydownload.DependencyManager}s.
+ * <p>
+ * Relocated jars are stored by the hash of the original jar, the relocations that apply to it and the
+ * {@link IRelocationProvider#getVersion() version} of the provider, so adding relocations that do not apply to a jar
+ * does not relocate it again. Every relocated jar has a {@code .properties} file next to it describing it, which is written
+ * after the jar is in place, a jar without one (for example because relocating was interrupted) is relocated again.
+ * Which relocations apply to a jar is remembered for the full set of relocations, so jars are only scanned once.
+ * When the artifact of a jar is known, a new version of it is relocated with the previous version available to the provider.
+ */
+@SuppressWarnings("unused") // API
+public class RelocationCache {
+
+    private static final String NONE = "none";
+
+    private final Path directory;
+
+    /**
+     * Creates a relocation cache.
+     *
+     * @param directory the directory to store the relocated jars in
+     */
+    public RelocationCache(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The directory the relocated jars are stored in.
+     *
+     * @return the directory
+     */
+    @NotNull
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the relocated jar for the provided jar, relocating it with the provided provider if it is not stored yet.
+     *
+     * @param jar         the jar to relocate
+     * @param jarHash     the hash of the jar, including the algorithm (like {@code SHA-256:...})
+     * @param relocations the relocations
+     * @param provider    the provider to relocate the jar with
+     * @return the relocated jar or the provided jar if none of the relocations apply to it
+     * @throws IOException if reading the jar or writing the relocated jar fails
+     */
+    @NotNull
+    public Path relocate(@NotNull Path jar, @NotNull String jarHash, @NotNull Set<Relocation> relocations, @NotNull IRelocationProvider provider) throws IOException {
+        return relocate(jar, jarHash, relocations, provider, null);
+    }
+
+    /**
+     * Gets the relocated jar for the provided jar, relocating it with the provided provider if it is not stored yet.
+     * The last jar relocated for the same artifact is passed to the provider as the previous version,
+     * so it can reuse what did not change.
+     *
+     * @param jar         the jar to relocate
+     * @param jarHash     the hash of the jar, including the algorithm (like {@code SHA-256:...})
+     * @param relocations the relocations
+     * @param provider    the provider to relocate the jar with
+     * @param artifact    the artifact the jar is a version of (like {@code groupId:artifactId}) or {@code null}
+     * @return the relocated jar or the provided jar if none of the relocations apply to it
+     * @throws IOException if reading the jar or writing the relocated jar fails
+     */
+    @NotNull
+    public Path relocate(@NotNull Path jar, @NotNull String jarHash, @NotNull Set<Relocation> relocations,
+                         @NotNull IRelocationProvider provider, @Nullable String artifact) throws IOException {
+        if (relocations.isEmpty()) {
+            return jar;
+        }
+
+        // The relocations that apply, as found by a previous scan with the same relocations
+        Path indexFile = directory.resolve("index").resolve(digest(jarHash, Relocation.digest(relocations), provider.getVersion()) + ".properties");
+        Properties index = load(indexFile);
+        String key = index != null ? index.getProperty("entry") : null;
+        if (NONE.equals(key)) {
+            return jar;
+        }
+        if (key != null && isValid(key)) {
+            return getJarPath(key);
+        }
+
+        Set<Relocation> applicable = RelocationScanner.getApplicableRelocations(jar, relocations);
+        if (applicable.isEmpty()) {
+            writeIndex(indexFile, NONE);
+            return jar;
+        }
+
+        String relocationsDigest = Relocation.digest(applicable);
+        key = digest(jarHash, relocationsDigest, provider.getVersion());
+        Path relocated = getJarPath(key);
+        // The last jar relocated for the artifact, with the same relocations and provider
+        Path artifactFile = artifact != null
+                ? directory.resolve("artifacts").resolve(digest(artifact, relocationsDigest, provider.getVersion()) + ".properties")
+                : null;
+        if (!isValid(key)) {
+            Properties latest = artifactFile != null ? load(artifactFile) : null;
+            String previousKey = latest != null ? latest.getProperty("entry") : null;
+            Path previous = previousKey != null && !previousKey.equals(key) && isValid(previousKey) ? getJarPath(previousKey) : null;
+
+            Files.createDirectories(relocated.getParent());
+            Path temporary = Files.createTempFile(relocated.getParent(), key, ".tmp");
+            try {
+                provider.run(jar, temporary, applicable, previous);
+                FileUtils.move(temporary, relocated);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            Properties metadata = new Properties();
+            metadata.setProperty("source", jar.toAbsolutePath().toString());
+            metadata.setProperty("sourceHash", jarHash);
+            if (artifact != null) {
+                metadata.setProperty("artifact", artifact);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (Relocation relocation : applicable) {
+                if (builder.length() > 0) {
+                    builder.append('\n');
+                }
+                builder.append(relocation.getCanonicalForm());
+            }
+            metadata.setProperty("relocations", builder.toString());
+            metadata.setProperty("provider", provider.getVersion());
+            metadata.setProperty("size", Long.toString(Files.size(relocated)));
+            FileUtils.store(getMetadataPath(key), metadata, "Relocated jar");
+        }
+        writeIndex(indexFile, key);
+        if (artifactFile != null) {
+            writeIndex(artifactFile, key);
+        }
+        return relocated;
+    }
+
+    private boolean isValid(String key) throws IOException {
+        Path jar = getJarPath(key);
+        Properties metadata = load(getMetadataPath(key));
+        if (metadata == null || !Files.exists(jar)) {
+            return false;
+        }
+        return Long.toString(Files.size(jar)).equals(metadata.getProperty("size"));
+    }
+
+    private Path getJarPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".jar");
+    }
+
+    private Path getMetadataPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".properties");
+    }
+
+    private void writeIndex(Path indexFile, String key) throws IOException {
+        Properties index = new Properties();
+        index.setProperty("entry", key);
+        FileUtils.store(indexFile, index, "Relocated jar entry");
+    }
+
+    @Nullable
+    private static Properties load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        } catch (IllegalArgumentException e) {
+            // Malformed, written again
+            return null;
+        }
+        return properties;
+    }
+
+    private static String digest(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HashUtils.getHash(digest);
+    }
+}
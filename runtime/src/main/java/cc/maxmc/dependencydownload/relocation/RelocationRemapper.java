@@ -0,0 +1,212 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Maps class names, descriptors, signatures and resource paths with a set of {@link Relocation}s,
+ * following the rules of {@code jar-relocator}: a name is relocated if it starts with the pattern,
+ * is matched by one of the includes (if there are any) and is not matched by any of the excludes.
+ * Includes and excludes are ant-style patterns, {@code .} and {@code /} are interchangeable.
+ * The relocations are matched through {@link RelocationRules}.
+ */
+final class RelocationRemapper {
+
+    private final RelocationRules rules;
+
+    RelocationRemapper(Collection<Relocation> relocations) {
+        this.rules = new RelocationRules(relocations);
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Checks if the provided bytes may contain a name that is relocated, if this returns false they certainly do not.
+     */
+    boolean mayContain(byte[] data, int offset, int length) {
+        return rules.mayContain(data, offset, length);
+    }
+
+    /**
+     * Maps an internal class name (like {@code com/example/Main}) or resource path.
+     *
+     * @return the relocated path or {@code null} if it is not relocated
+     */
+    @Nullable
+    String mapPath(String path) {
+        RelocationRules.Rule rule = rules.find(path);
+        return rule != null ? rule.relocatedPath + path.substring(rule.path.length()) : null;
+    }
+
+    /**
+     * Maps a class name in the binary form (like {@code com.example.Main}).
+     *
+     * @return the relocated class name or {@code null} if it is not relocated
+     */
+    @Nullable
+    String mapClass(String className) {
+        if (className.indexOf('/') != -1) {
+            return null;
+        }
+        RelocationRules.Rule rule = rules.find(className.replace('.', '/'));
+        return rule != null ? rule.relocatedDotted + className.substring(rule.dotted.length()) : null;
+    }
+
+    /**
+     * Maps the name of an entry in a jar. Resources in {@code META-INF} are not relocated, except for
+     * the classes and resources of multi-release jars.
+     *
+     * @return the relocated entry name or {@code null} if it is not relocated
+     */
+    @Nullable
+    String mapEntryName(String name) {
+        if (name.startsWith("META-INF/")) {
+            if (name.startsWith("META-INF/versions/")) {
+                int versionEnd = name.indexOf('/', "META-INF/versions/".length());
+                if (versionEnd != -1) {
+                    String mapped = mapPath(name.substring(versionEnd + 1));
+                    return mapped != null ? name.substring(0, versionEnd + 1) + mapped : null;
+                }
+            }
+            return null;
+        }
+        return mapPath(name);
+    }
+
+    /**
+     * Maps a string from the constant pool of a class, which may be an internal class name, a descriptor, a signature
+     * or a string constant containing a class name in the binary form.
+     *
+     * @return the relocated string or {@code null} if nothing in it is relocated
+     */
+    @Nullable
+    String mapValue(String value) {
+        if (value.indexOf('/') == -1) {
+            // String constants, like the argument of Class.forName
+            return isBinaryName(value) ? mapClass(value) : null;
+        }
+
+        StringBuilder builder = null;
+        int copied = 0;
+        int index = 0;
+        while (index < value.length()) {
+            if (!isNameStart(value, index)) {
+                index++;
+                continue;
+            }
+
+            int end = index;
+            while (end < value.length() && value.charAt(end) != ';' && value.charAt(end) != '<') {
+                end++;
+            }
+            String mapped = mapPath(value.substring(index, end));
+            if (mapped == null) {
+                index++;
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder(value.length() + 16);
+            }
+            builder.append(value, copied, index).append(mapped);
+            copied = end;
+            index = Math.max(end, index + 1);
+        }
+
+        if (builder == null) {
+            return null;
+        }
+        return builder.append(value, copied, value.length()).toString();
+    }
+
+    /**
+     * Relocates the implementations listed in a service file.
+     *
+     * @return the relocated service file or {@code null} if it did not change
+     */
+    @Nullable
+    byte[] remapServices(byte[] data) throws IOException {
+        StringBuilder builder = new StringBuilder(data.length + 64);
+        boolean changed = false;
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                int commentStart = line.indexOf('#');
+                String content = commentStart != -1 ? line.substring(0, commentStart) : line;
+                String className = content.trim();
+                String mapped = className.isEmpty() ? null : mapClass(className);
+                if (mapped != null) {
+                    int start = content.indexOf(className);
+                    builder.append(line, 0, start).append(mapped).append(line, start + className.length(), line.length());
+                    changed = true;
+                } else {
+                    builder.append(line);
+                }
+                builder.append('\n');
+            }
+        }
+        return changed ? builder.toString().getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Checks if an internal name starts at the provided index: at the start of the value,
+     * or after the {@code L} of a type in a descriptor or signature.
+     */
+    private static boolean isNameStart(String value, int index) {
+        if (index == 0) {
+            return true;
+        }
+        if (value.charAt(index - 1) != 'L') {
+            return false;
+        }
+        if (index == 1) {
+            return true;
+        }
+        switch (value.charAt(index - 2)) {
+            case '(':
+            case ')':
+            case '[':
+            case ';':
+            case '<':
+            case '>':
+            case ':':
+            case '^':
+            case '+':
+            case '-':
+            case '*':
+            // Primitive types
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 'V':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isBinaryName(String value) {
+        if (value.isEmpty() || value.indexOf('.') == -1) {
+            return false;
+        }
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c != '.' && !Character.isJavaIdentifierPart(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
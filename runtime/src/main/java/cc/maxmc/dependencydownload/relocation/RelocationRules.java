@@ -0,0 +1,265 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A set of {@link Relocation}s compiled for matching many names against them: the patterns are stored in a prefix trie,
+ * so finding the relocations that may apply to a name takes a single walk over the name regardless of how many there are,
+ * and the includes and excludes are compiled to regular expressions once.
+ * When multiple relocations apply to a name, the first one in the provided order is used.
+ */
+final class RelocationRules {
+
+    private final List<Rule> rules = new ArrayList<>();
+    /** The patterns in the internal form (like {@code com/example}) */
+    private final Node paths = new Node();
+    /** The patterns in both the internal and the binary form, as UTF-8 */
+    private final Node bytes = new Node();
+    /** The bytes the patterns can start with, to quickly skip over the other bytes */
+    private final boolean[] firstBytes = new boolean[256];
+
+    RelocationRules(Collection<Relocation> relocations) {
+        for (Relocation relocation : relocations) {
+            Rule rule = new Rule(rules.size(), relocation);
+            rules.add(rule);
+
+            Node node = paths;
+            for (int index = 0; index < rule.path.length(); index++) {
+                node = node.child(rule.path.charAt(index));
+            }
+            node.addRule(rule);
+
+            for (byte[] pattern : new byte[][] {rule.path.getBytes(StandardCharsets.UTF_8), rule.dotted.getBytes(StandardCharsets.UTF_8)}) {
+                node = bytes;
+                for (byte b : pattern) {
+                    node = node.child((char) (b & 0xFF));
+                }
+                node.addRule(rule);
+                if (pattern.length > 0) {
+                    firstBytes[pattern[0] & 0xFF] = true;
+                }
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Checks if the provided bytes contain one of the patterns, in either form.
+     */
+    boolean mayContain(byte[] data, int offset, int length) {
+        if (rules.isEmpty()) {
+            return false;
+        }
+        if (bytes.rules != null) {
+            // An empty pattern
+            return true;
+        }
+
+        int end = offset + length;
+        for (int start = offset; start < end; start++) {
+            if (!firstBytes[data[start] & 0xFF]) {
+                continue;
+            }
+            Node node = bytes;
+            for (int index = start; index < end; index++) {
+                node = node.get((char) (data[index] & 0xFF));
+                if (node == null) {
+                    break;
+                }
+                if (node.rules != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the relocation for an internal class name (like {@code com/example/Main}) or resource path.
+     *
+     * @return the rule or {@code null} if the path is not relocated
+     */
+    @Nullable
+    Rule find(String path) {
+        Rule found = null;
+        Node node = paths;
+        int index = 0;
+        while (true) {
+            if (node.rules != null) {
+                for (Rule rule : node.rules) {
+                    if ((found == null || rule.order < found.order) && rule.canRelocate(path)) {
+                        found = rule;
+                    }
+                }
+            }
+            if (index == path.length()) {
+                break;
+            }
+            node = node.get(path.charAt(index++));
+            if (node == null) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Compiles an ant-style pattern ({@code *} within a segment, {@code **} across segments and {@code ?} for a single character)
+     * to a regular expression.
+     */
+    static Pattern compileGlob(String glob) {
+        StringBuilder builder = new StringBuilder();
+        List<String> segments = new ArrayList<>();
+        for (String segment : glob.split("/")) {
+            // Consecutive ** match the same as a single one
+            if (!segment.equals("**") || segments.isEmpty() || !segments.get(segments.size() - 1).equals("**")) {
+                segments.add(segment);
+            }
+        }
+        for (int index = 0; index < segments.size(); index++) {
+            String segment = segments.get(index);
+            boolean last = index == segments.size() - 1;
+            if (segment.equals("**")) {
+                if (index == 0) {
+                    // Any leading segments, or none
+                    builder.append(last ? ".*" : "(?:.*/)?");
+                } else {
+                    // Any trailing or middle segments, or none
+                    builder.append(last ? "(?:/.*)?" : "(?:/.*)?/");
+                }
+                continue;
+            }
+            if (index > 0 && !segments.get(index - 1).equals("**")) {
+                builder.append('/');
+            }
+
+            int literalStart = 0;
+            for (int charIndex = 0; charIndex < segment.length(); charIndex++) {
+                char c = segment.charAt(charIndex);
+                if (c != '*' && c != '?') {
+                    continue;
+                }
+                if (charIndex > literalStart) {
+                    builder.append(Pattern.quote(segment.substring(literalStart, charIndex)));
+                }
+                builder.append(c == '*' ? "[^/]*" : "[^/]");
+                literalStart = charIndex + 1;
+            }
+            if (literalStart < segment.length()) {
+                builder.append(Pattern.quote(segment.substring(literalStart)));
+            }
+        }
+        return Pattern.compile(builder.toString(), Pattern.DOTALL);
+    }
+
+    private static final class Node {
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        /** The rules with the pattern ending at this node, in the provided order */
+        private List<Rule> rules;
+
+        @Nullable
+        Node get(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            // Kept sorted for the binary search
+            int insertion = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(labels, insertion, newLabels, insertion + 1, labels.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            Node child = new Node();
+            newLabels[insertion] = label;
+            newChildren[insertion] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void addRule(Rule rule) {
+            if (rules == null) {
+                rules = new ArrayList<>(1);
+            }
+            if (!rules.contains(rule)) {
+                rules.add(rule);
+            }
+        }
+    }
+
+    static final class Rule {
+
+        private final int order;
+        final String path;
+        final String dotted;
+        final String relocatedPath;
+        final String relocatedDotted;
+        private final Pattern[] includes;
+        private final Pattern[] excludes;
+
+        Rule(int order, Relocation relocation) {
+            this.order = order;
+            this.path = relocation.getPattern().replace('.', '/');
+            this.dotted = relocation.getPattern().replace('/', '.');
+            this.relocatedPath = relocation.getShadedPattern().replace('.', '/');
+            this.relocatedDotted = relocation.getShadedPattern().replace('/', '.');
+            this.includes = compile(relocation.getIncludes());
+            this.excludes = compile(relocation.getExcludes());
+        }
+
+        private static Pattern[] compile(Collection<String> patterns) {
+            List<Pattern> compiled = new ArrayList<>();
+            for (String pattern : patterns) {
+                String classPattern = pattern.replace('.', '/');
+                compiled.add(compileGlob(classPattern));
+                if (classPattern.endsWith("/*")) {
+                    // com.example.* also matches the package itself
+                    compiled.add(compileGlob(classPattern.substring(0, classPattern.lastIndexOf('/'))));
+                }
+            }
+            return compiled.toArray(new Pattern[0]);
+        }
+
+        /**
+         * Checks the includes and excludes, the path must start with the pattern.
+         */
+        boolean canRelocate(String path) {
+            if (path.endsWith(".class")) {
+                path = path.substring(0, path.length() - ".class".length());
+            }
+            if (includes.length > 0 && !matchesAny(includes, path)) {
+                return false;
+            }
+            return !matchesAny(excludes, path);
+        }
+
+        private static boolean matchesAny(Pattern[] patterns, String path) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks if relocating a jar would change it, so jars that do not reference any of the relocated packages
+ * can be used as-is instead of being relocated.
+ * <p>
+ * The names in the central directory are checked first, only if they do not settle it are the classes
+ * and service files read. These are searched for the patterns, and only classes that contain one have their
+ * constant pool checked.
+ */
+@SuppressWarnings("unused") // API
+public final class RelocationScanner {
+
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+
+    private RelocationScanner() {
+    }
+
+    /**
+     * Checks if any of the provided relocations apply to the provided jar.
+     *
+     * @param jar         the jar
+     * @param relocations the relocations
+     * @return true if relocating the jar would change it
+     * @throws IOException if reading the jar fails
+     */
+    public static boolean isAffected(@NotNull Path jar, @NotNull Set<Relocation> relocations) throws IOException {
+        return !scan(jar, relocations, true).isEmpty();
+    }
+
+    /**
+     * Gets the relocations that apply to the provided jar, relocating the jar with only these relocations
+     * has the same result as relocating it with all the provided relocations.
+     *
+     * @param jar         the jar
+     * @param relocations the relocations
+     * @return the relocations that would change the jar, in the order of the provided relocations
+     * @throws IOException if reading the jar fails
+     */
+    @NotNull
+    public static Set<Relocation> getApplicableRelocations(@NotNull Path jar, @NotNull Set<Relocation> relocations) throws IOException {
+        return scan(jar, relocations, false);
+    }
+
+    private static Set<Relocation> scan(Path jar, Set<Relocation> relocations, boolean anyApplicable) throws IOException {
+        if (relocations.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        // Checked separately, to know which of them apply
+        Map<Relocation, RelocationRemapper> remaining = new LinkedHashMap<>();
+        for (Relocation relocation : relocations) {
+            remaining.put(relocation, new RelocationRemapper(Collections.singleton(relocation)));
+        }
+        Set<Relocation> applicable = new HashSet<>();
+
+        try (RawZipReader reader = new RawZipReader(jar)) {
+            scan(reader, remaining, applicable, anyApplicable);
+        }
+
+        Set<Relocation> ordered = new LinkedHashSet<>();
+        for (Relocation relocation : relocations) {
+            if (applicable.contains(relocation)) {
+                ordered.add(relocation);
+            }
+        }
+        return ordered;
+    }
+
+    private static void scan(RawZipReader reader, Map<Relocation, RelocationRemapper> remaining, Set<Relocation> applicable, boolean anyApplicable) throws IOException {
+        for (RawZipReader.Entry entry : reader.getEntries()) {
+            Iterator<Map.Entry<Relocation, RelocationRemapper>> iterator = remaining.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Relocation, RelocationRemapper> candidate = iterator.next();
+                if (isNameRelocated(candidate.getValue(), entry.name)) {
+                    applicable.add(candidate.getKey());
+                    iterator.remove();
+                }
+            }
+            if (remaining.isEmpty() || (anyApplicable && !applicable.isEmpty())) {
+                return;
+            }
+        }
+
+        for (RawZipReader.Entry entry : reader.getEntries()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            boolean isClass = entry.name.endsWith(".class");
+            if (!isClass && !entry.name.startsWith(SERVICES_PREFIX)) {
+                // Only the names of other resources are relocated
+                continue;
+            }
+
+            byte[] data = reader.read(entry);
+            Iterator<Map.Entry<Relocation, RelocationRemapper>> iterator = remaining.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Relocation, RelocationRemapper> candidate = iterator.next();
+                if (isContentRelocated(candidate.getValue(), data, isClass)) {
+                    applicable.add(candidate.getKey());
+                    iterator.remove();
+                }
+            }
+            if (remaining.isEmpty() || (anyApplicable && !applicable.isEmpty())) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isNameRelocated(RelocationRemapper remapper, String name) {
+        if (remapper.mapEntryName(name) != null) {
+            return true;
+        }
+        return name.startsWith(SERVICES_PREFIX) && remapper.mapClass(name.substring(SERVICES_PREFIX.length())) != null;
+    }
+
+    private static boolean isContentRelocated(RelocationRemapper remapper, byte[] data, boolean isClass) throws IOException {
+        if (!remapper.mayContain(data, 0, data.length)) {
+            return false;
+        }
+        if (!isClass) {
+            return remapper.remapServices(data) != null;
+        }
+        try {
+            return ClassFileRemapper.remap(remapper, data) != null;
+        } catch (IOException e) {
+            // Not a valid class, let the relocation deal with it
+            return true;
+        }
+    }
+}
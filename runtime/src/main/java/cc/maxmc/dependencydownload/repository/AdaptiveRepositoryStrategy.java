@@ -0,0 +1,232 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RepositoryStrategy} that orders repositories by how well they served earlier requests for the same group id prefix,
+ * before handing them to another strategy.
+ * <p>
+ * For every group id prefix (the first two segments of the group id) and repository host the success rate, the not found (404) rate
+ * and the latency of successful requests are tracked as exponentially weighted moving averages. Repositories without
+ * any observations keep their configured position relative to each other. The learned scores are written to the provided file
+ * by {@link #save()}, so the next start begins with a good ordering.
+ */
+@SuppressWarnings("unused") // API
+public class AdaptiveRepositoryStrategy implements RepositoryStrategy {
+
+    private static final double ALPHA = 0.3;
+    private static final int PREFIX_SEGMENTS = 2;
+    // How much less likely a repository that keeps answering 404 is tried, compared to one that failed otherwise
+    private static final double NOT_FOUND_PENALTY = 0.5;
+
+    private final Map<String, Score> scores = new ConcurrentHashMap<>();
+    private final RepositoryStrategy delegate;
+    private final Path scoreFile;
+    private volatile boolean dirty = false;
+
+    /**
+     * Creates a {@link AdaptiveRepositoryStrategy} that tries the ordered repositories one-by-one.
+     *
+     * @param scoreFile the file to persist the learned scores in, or {@code null} to only keep them in memory
+     * @throws IOException if the existing score file cannot be read
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public AdaptiveRepositoryStrategy(@Nullable Path scoreFile) throws IOException {
+        this(scoreFile, new SequentialRepositoryStrategy());
+    }
+
+    /**
+     * Creates a {@link AdaptiveRepositoryStrategy}.
+     *
+     * @param scoreFile the file to persist the learned scores in, or {@code null} to only keep them in memory
+     * @param delegate  the strategy the ordered repositories are handed to
+     * @throws IOException if the existing score file cannot be read
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public AdaptiveRepositoryStrategy(@Nullable Path scoreFile, @NotNull RepositoryStrategy delegate) throws IOException {
+        this.scoreFile = scoreFile;
+        this.delegate = delegate;
+        load();
+    }
+
+    @Override
+    public <T> T select(@NotNull MavenObject mavenObject, @NotNull List<Repository> repositories, @NotNull RepositoryAttempt<T> attempt) {
+        String prefix = prefix(mavenObject.getGroupId());
+
+        // The scores are updated by attempts on other threads, so they are read once before sorting
+        Map<Repository, Double> ranks = new HashMap<>();
+        for (Repository repository : repositories) {
+            ranks.put(repository, score(prefix, repository).rank());
+        }
+        List<Repository> ordered = new ArrayList<>(repositories);
+        // List.sort is stable, repositories that are equally good keep their configured order
+        ordered.sort(Comparator.comparingDouble(repository -> -ranks.get(repository)));
+
+        return delegate.select(mavenObject, ordered, repository -> {
+            long start = System.nanoTime();
+            try {
+                T result = attempt.attempt(repository);
+                score(prefix, repository).success(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                dirty = true;
+                return result;
+            } catch (Throwable t) {
+                if (!isCancellation(t)) {
+                    score(prefix, repository).failure(isNotFound(t));
+                    dirty = true;
+                }
+                throw t;
+            }
+        });
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return delegate.isConcurrent();
+    }
+
+    @Override
+    public void save() throws IOException {
+        delegate.save();
+        if (scoreFile == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            Properties properties = new Properties();
+            for (Map.Entry<String, Score> entry : scores.entrySet()) {
+                properties.setProperty(entry.getKey(), entry.getValue().toString());
+            }
+            FileUtils.store(scoreFile, properties, "Repository scores per group id prefix");
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        if (scoreFile == null || !Files.exists(scoreFile)) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(scoreFile)) {
+            properties.load(inputStream);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            Score score = Score.parse(properties.getProperty(key));
+            if (score != null) {
+                scores.put(key, score);
+            }
+        }
+    }
+
+    private Score score(String prefix, Repository repository) {
+        return scores.computeIfAbsent(prefix + '|' + repository.getHost(), key -> new Score());
+    }
+
+    private static String prefix(String groupId) {
+        int index = -1;
+        for (int segment = 0; segment < PREFIX_SEGMENTS; segment++) {
+            index = groupId.indexOf('.', index + 1);
+            if (index == -1) {
+                return groupId;
+            }
+        }
+        return groupId.substring(0, index);
+    }
+
+    private static boolean isNotFound(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FileNotFoundException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCancellation(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The observed behaviour of a single repository for a group id prefix.
+     */
+    private static class Score {
+
+        private double successRate = 0.5;
+        private double notFoundRate = 0;
+        private double latencyMillis = 0;
+        private long samples = 0;
+
+        synchronized void success(long millis) {
+            successRate = ewma(successRate, 1);
+            notFoundRate = ewma(notFoundRate, 0);
+            latencyMillis = samples == 0 ? millis : ewma(latencyMillis, millis);
+            samples++;
+        }
+
+        synchronized void failure(boolean notFound) {
+            successRate = ewma(successRate, 0);
+            notFoundRate = ewma(notFoundRate, notFound ? 1 : 0);
+            samples++;
+        }
+
+        /**
+         * The expected usefulness of trying this repository, higher is better.
+         * Not found responses count against a repository more than other failures,
+         * as a repository that does not have the artifacts for a prefix usually does not get them later.
+         */
+        synchronized double rank() {
+            return successRate * (1 - NOT_FOUND_PENALTY * notFoundRate) / (1 + latencyMillis / 1000);
+        }
+
+        private static double ewma(double average, double value) {
+            return average + ALPHA * (value - average);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return successRate + "," + notFoundRate + "," + latencyMillis + "," + samples;
+        }
+
+        static Score parse(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                Score score = new Score();
+                score.successRate = Double.parseDouble(parts[0]);
+                score.notFoundRate = Double.parseDouble(parts[1]);
+                score.latencyMillis = Double.parseDouble(parts[2]);
+                score.samples = Long.parseLong(parts[3]);
+                return score;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
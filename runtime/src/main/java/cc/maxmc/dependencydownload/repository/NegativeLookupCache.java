@@ -0,0 +1,188 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of files that a {@link Repository} does not have, so they are not requested from that repository again until the entry expires.
+ * <p>
+ * Misses are keyed by the repository host and the maven path of the file. Release artifacts never change once published,
+ * so their misses are kept longer than misses of snapshot artifacts. The cache is written to the provided file by {@link #save()}.
+ */
+@SuppressWarnings("unused") // API
+public class NegativeLookupCache {
+
+    /**
+     * The default time to live of a missing release artifact, 1 day.
+     */
+    public static final long DEFAULT_RELEASE_TTL = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The default time to live of a missing snapshot artifact, 10 minutes.
+     */
+    public static final long DEFAULT_SNAPSHOT_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+    private final Path file;
+    private final long releaseTtl;
+    private final long snapshotTtl;
+    private volatile boolean dirty = false;
+
+    /**
+     * Creates a {@link NegativeLookupCache} with the {@link #DEFAULT_RELEASE_TTL} and {@link #DEFAULT_SNAPSHOT_TTL}.
+     *
+     * @param file the file to persist the misses in, or {@code null} to only keep them in memory
+     * @throws IOException if the existing file cannot be read
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public NegativeLookupCache(@Nullable Path file) throws IOException {
+        this(file, DEFAULT_RELEASE_TTL, DEFAULT_SNAPSHOT_TTL);
+    }
+
+    /**
+     * Creates a {@link NegativeLookupCache}.
+     *
+     * @param file        the file to persist the misses in, or {@code null} to only keep them in memory
+     * @param releaseTtl  how long a missing release artifact is remembered, in milliseconds
+     * @param snapshotTtl how long a missing snapshot artifact is remembered, in milliseconds
+     * @throws IOException if the existing file cannot be read
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public NegativeLookupCache(@Nullable Path file, long releaseTtl, long snapshotTtl) throws IOException {
+        this.file = file;
+        this.releaseTtl = releaseTtl;
+        this.snapshotTtl = snapshotTtl;
+        load();
+    }
+
+    /**
+     * Checks if the provided repository is known to not have the provided maven object.
+     *
+     * @param repository  the repository
+     * @param mavenObject the maven object
+     * @return true if the repository recently did not have the maven object
+     */
+    public boolean isMissing(@NotNull Repository repository, @NotNull MavenObject mavenObject) {
+        String key = key(repository, mavenObject);
+        Long expiry = misses.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry < System.currentTimeMillis()) {
+            misses.remove(key, expiry);
+            dirty = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Throws a {@link FileNotFoundException} if the provided repository is known to not have the provided maven object.
+     *
+     * @param repository  the repository
+     * @param mavenObject the maven object
+     * @throws FileNotFoundException if the repository recently did not have the maven object
+     * @see #isMissing(Repository, MavenObject)
+     */
+    public void checkMissing(@NotNull Repository repository, @NotNull MavenObject mavenObject) throws FileNotFoundException {
+        if (isMissing(repository, mavenObject)) {
+            throw new FileNotFoundException("Cached miss: " + key(repository, mavenObject));
+        }
+    }
+
+    /**
+     * Records that the provided repository does not have the provided maven object.
+     *
+     * @param repository  the repository
+     * @param mavenObject the maven object
+     */
+    public void recordMiss(@NotNull Repository repository, @NotNull MavenObject mavenObject) {
+        long ttl = isSnapshot(mavenObject) ? snapshotTtl : releaseTtl;
+        misses.put(key(repository, mavenObject), System.currentTimeMillis() + ttl);
+        dirty = true;
+    }
+
+    /**
+     * Records a miss if the provided failure of a request to the provided repository was caused by the file not existing.
+     *
+     * @param repository  the repository
+     * @param mavenObject the maven object
+     * @param failure     the failure of the request
+     */
+    public void recordFailure(@NotNull Repository repository, @NotNull MavenObject mavenObject, @NotNull Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FileNotFoundException) {
+                recordMiss(repository, mavenObject);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the unexpired misses to the file this cache was created with.
+     *
+     * @throws IOException if writing the file fails
+     */
+    public void save() throws IOException {
+        if (file == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            long now = System.currentTimeMillis();
+            Properties properties = new Properties();
+            for (Map.Entry<String, Long> entry : misses.entrySet()) {
+                if (entry.getValue() >= now) {
+                    properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+                }
+            }
+            FileUtils.store(file, properties, "Repository misses and their expiry");
+        } catch (IOException | RuntimeException e) {
+            // Saved again the next time
+            dirty = true;
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+        long now = System.currentTimeMillis();
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                long expiry = Long.parseLong(properties.getProperty(key));
+                if (expiry >= now) {
+                    misses.put(key, expiry);
+                }
+            } catch (NumberFormatException ignored) {
+                // Skip corrupt entries, they will be requested again
+            }
+        }
+    }
+
+    private static boolean isSnapshot(MavenObject mavenObject) {
+        return mavenObject.isSnapshot() || mavenObject.getVersion().endsWith("-SNAPSHOT");
+    }
+
+    private static String key(Repository repository, MavenObject mavenObject) {
+        return repository.getHost() + '/' + mavenObject.getMavenPath();
+    }
+}
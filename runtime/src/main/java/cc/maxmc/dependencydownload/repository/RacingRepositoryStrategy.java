@@ -0,0 +1,154 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link RepositoryStrategy} that tries multiple repositories at the same time.
+ * <p>
+ * The first {@code raceCount} repositories are tried immediately. The remaining repositories are tried, in order,
+ * once a running attempt fails or, when hedging is enabled, once no attempt has succeeded within the hedge delay.
+ * The hedge delay is the configured percentile of the latencies of recent successful attempts, or the initial delay
+ * until enough attempts have been observed. The result of the first successful attempt is kept and all other attempts are
+ * cancelled by interrupting them.
+ */
+@SuppressWarnings("unused") // API
+public class RacingRepositoryStrategy implements RepositoryStrategy {
+
+    private static final int LATENCY_SAMPLES = 64;
+    private static final int MIN_LATENCY_SAMPLES = 8;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "DependencyDownload-Repository-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int raceCount;
+    private final long hedgeDelayMillis;
+    private final double hedgePercentile;
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount = 0;
+
+    /**
+     * Creates a {@link RacingRepositoryStrategy} that races the first {@code raceCount} repositories without hedging.
+     *
+     * @param raceCount the amount of repositories to try at the same time
+     */
+    public RacingRepositoryStrategy(int raceCount) {
+        this(raceCount, -1, 0);
+    }
+
+    /**
+     * Creates a {@link RacingRepositoryStrategy}.
+     *
+     * @param raceCount        the amount of repositories to try immediately
+     * @param hedgeDelayMillis the delay after which the next repository is tried if no attempt has succeeded yet,
+     *                         {@code -1} to disable hedging
+     * @param hedgePercentile  the percentile (between {@code 0} and {@code 1}) of recent successful attempt latencies to use as
+     *                         the hedge delay once enough attempts have been observed, {@code 0} to always use {@code hedgeDelayMillis}
+     */
+    public RacingRepositoryStrategy(int raceCount, long hedgeDelayMillis, double hedgePercentile) {
+        if (raceCount < 1) {
+            throw new IllegalArgumentException("At least one repository has to be tried at once");
+        }
+        if (hedgePercentile < 0 || hedgePercentile > 1) {
+            throw new IllegalArgumentException("Hedge percentile must be between 0 and 1");
+        }
+        this.raceCount = raceCount;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public <T> T select(@NotNull MavenObject mavenObject, @NotNull List<Repository> repositories, @NotNull RepositoryAttempt<T> attempt) {
+        RuntimeException failure = new RuntimeException("All provided repositories failed to download " + mavenObject.getMavenArtifact());
+        ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(repositories.size());
+
+        int next = 0;
+        int running = 0;
+        try {
+            for (; next < Math.min(raceCount, repositories.size()); next++, running++) {
+                futures.add(submit(completionService, attempt, repositories.get(next)));
+            }
+
+            while (running > 0 || next < repositories.size()) {
+                if (running == 0) {
+                    futures.add(submit(completionService, attempt, repositories.get(next++)));
+                    running++;
+                    continue;
+                }
+
+                Future<T> completed;
+                long hedgeDelay = hedgeDelay();
+                if (next < repositories.size() && hedgeDelay >= 0) {
+                    completed = completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+                } else {
+                    completed = completionService.take();
+                }
+
+                if (completed == null) {
+                    // Hedge: nothing succeeded within the delay, also try the next repository
+                    futures.add(submit(completionService, attempt, repositories.get(next++)));
+                    running++;
+                    continue;
+                }
+
+                running--;
+                try {
+                    return completed.get();
+                } catch (ExecutionException e) {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        throw failure;
+    }
+
+    private <T> Future<T> submit(ExecutorCompletionService<T> completionService, RepositoryAttempt<T> attempt, Repository repository) {
+        return completionService.submit(() -> {
+            long start = System.nanoTime();
+            T result = attempt.attempt(repository);
+            recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        });
+    }
+
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyCount++ % LATENCY_SAMPLES] = millis;
+    }
+
+    private synchronized long hedgeDelay() {
+        if (hedgeDelayMillis < 0 || hedgePercentile == 0 || latencyCount < MIN_LATENCY_SAMPLES) {
+            return hedgeDelayMillis;
+        }
+        long[] samples = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_SAMPLES));
+        Arrays.sort(samples);
+        return samples[(int) Math.min(samples.length - 1, Math.floor(hedgePercentile * samples.length))];
+    }
+}
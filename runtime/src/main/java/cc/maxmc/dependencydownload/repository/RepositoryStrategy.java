@@ -0,0 +1,58 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decides in which order, and with how much concurrency, {@link Repository Repositories} are tried for a {@link MavenObject}.
+ *
+ * @see SequentialRepositoryStrategy
+ * @see RacingRepositoryStrategy
+ * @see AdaptiveRepositoryStrategy
+ */
+public interface RepositoryStrategy {
+
+    /**
+     * Runs the provided attempt against the provided repositories until one of them succeeds.
+     *
+     * @param mavenObject  the maven object that is being downloaded
+     * @param repositories an ordered list of repositories
+     * @param attempt      the attempt to run against a repository, completing normally means the attempt succeeded
+     * @param <T>          the result type of the attempt
+     * @return the result of the first successful attempt
+     * @throws RuntimeException if all attempts failed, with the failures of the attempts suppressed
+     */
+    <T> T select(@NotNull MavenObject mavenObject, @NotNull List<Repository> repositories, @NotNull RepositoryAttempt<T> attempt);
+
+    /**
+     * If attempts for the same {@link MavenObject} can run at the same time, in which case attempts must not share files.
+     *
+     * @return true if attempts can run concurrently
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * Persists what the strategy learned, called by the {@link cc.maxmc.dependencydownload.DependencyManager}
+     * after a batch of downloads has completed.
+     *
+     * @throws IOException if persisting fails
+     */
+    default void save() throws IOException {
+    }
+
+    /**
+     * An attempt to fetch something from a single {@link Repository}.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    interface RepositoryAttempt<T> {
+
+        T attempt(@NotNull Repository repository) throws Exception;
+    }
+}
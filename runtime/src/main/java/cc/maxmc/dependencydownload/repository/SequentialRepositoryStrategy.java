@@ -0,0 +1,25 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The default {@link RepositoryStrategy}, tries repositories one-by-one in the order they are provided in.
+ */
+public class SequentialRepositoryStrategy implements RepositoryStrategy {
+
+    @Override
+    public <T> T select(@NotNull MavenObject mavenObject, @NotNull List<Repository> repositories, @NotNull RepositoryAttempt<T> attempt) {
+        RuntimeException failure = new RuntimeException("All provided repositories failed to download " + mavenObject.getMavenArtifact());
+        for (Repository repository : repositories) {
+            try {
+                return attempt.attempt(repository);
+            } catch (Throwable t) {
+                failure.addSuppressed(t);
+            }
+        }
+        throw failure;
+    }
+}
@@ -0,0 +1,280 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A version that is ordered like maven orders versions.
+ * <ul>
+ *     <li>Versions are split into numbers and qualifiers on {@code .}, {@code -} and transitions between digits and letters</li>
+ *     <li>Numbers are compared numerically, trailing zeros are ignored ({@code 1.0} equals {@code 1})</li>
+ *     <li>Known qualifiers are ordered {@code alpha < beta < milestone < rc < snapshot < (release) < sp},
+ *     unknown qualifiers come after them in lexical order</li>
+ *     <li>{@code ga}, {@code final} and {@code release} equal a release, {@code cr} equals {@code rc}
+ *     and {@code a1}, {@code b1} and {@code m1} are short for {@code alpha-1}, {@code beta-1} and {@code milestone-1}</li>
+ * </ul>
+ */
+@SuppressWarnings("unused") // API
+public final class ComparableVersion implements Comparable<ComparableVersion> {
+
+    private final String value;
+    private final ListItem items;
+    private final String canonical;
+
+    public ComparableVersion(@NotNull String version) {
+        this.value = version;
+        this.items = parse(version);
+        this.canonical = items.toString();
+    }
+
+    @Override
+    public int compareTo(@NotNull ComparableVersion other) {
+        return items.compareTo(other.items);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return canonical.equals(((ComparableVersion) o).canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return canonical.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    private static ListItem parse(String version) {
+        version = version.toLowerCase(Locale.ENGLISH);
+        ListItem items = new ListItem();
+        ListItem list = items;
+        Deque<ListItem> stack = new ArrayDeque<>();
+        stack.push(list);
+
+        boolean isDigit = false;
+        int start = 0;
+        for (int index = 0; index < version.length(); index++) {
+            char c = version.charAt(index);
+            if (c == '.' || c == '-') {
+                list.add(index == start ? IntItem.ZERO : parseItem(isDigit, version.substring(start, index)));
+                start = index + 1;
+                if (c == '-') {
+                    list.add(list = new ListItem());
+                    stack.push(list);
+                }
+            } else if (Character.isDigit(c)) {
+                if (!isDigit && index > start) {
+                    // A qualifier directly followed by a number, like a1
+                    list.add(new StringItem(version.substring(start, index), true));
+                    start = index;
+                    list.add(list = new ListItem());
+                    stack.push(list);
+                }
+                isDigit = true;
+            } else {
+                if (isDigit && index > start) {
+                    list.add(parseItem(true, version.substring(start, index)));
+                    start = index;
+                    list.add(list = new ListItem());
+                    stack.push(list);
+                }
+                isDigit = false;
+            }
+        }
+        if (version.length() > start) {
+            list.add(parseItem(isDigit, version.substring(start)));
+        }
+
+        while (!stack.isEmpty()) {
+            stack.pop().normalize();
+        }
+        return items;
+    }
+
+    private static Item parseItem(boolean isDigit, String value) {
+        return isDigit ? new IntItem(new BigInteger(value)) : new StringItem(value, false);
+    }
+
+    private interface Item {
+
+        int compareTo(Item item);
+
+        boolean isNull();
+    }
+
+    private static final class IntItem implements Item {
+
+        private static final IntItem ZERO = new IntItem(BigInteger.ZERO);
+
+        private final BigInteger value;
+
+        IntItem(BigInteger value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Item item) {
+            if (item == null) {
+                return value.signum() == 0 ? 0 : 1;
+            }
+            if (item instanceof IntItem) {
+                return value.compareTo(((IntItem) item).value);
+            }
+            // 1.1 > 1-sp and 1.1 > 1-1
+            return 1;
+        }
+
+        @Override
+        public boolean isNull() {
+            return value.signum() == 0;
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+
+    private static final class StringItem implements Item {
+
+        private static final List<String> QUALIFIERS = Arrays.asList("alpha", "beta", "milestone", "rc", "snapshot", "", "sp");
+        private static final Map<String, String> ALIASES = new HashMap<>();
+        private static final String RELEASE_VERSION_INDEX = String.valueOf(QUALIFIERS.indexOf(""));
+
+        static {
+            ALIASES.put("ga", "");
+            ALIASES.put("final", "");
+            ALIASES.put("release", "");
+            ALIASES.put("cr", "rc");
+        }
+
+        private final String value;
+
+        StringItem(String value, boolean followedByDigit) {
+            if (followedByDigit && value.length() == 1) {
+                switch (value.charAt(0)) {
+                    case 'a':
+                        value = "alpha";
+                        break;
+                    case 'b':
+                        value = "beta";
+                        break;
+                    case 'm':
+                        value = "milestone";
+                        break;
+                }
+            }
+            String alias = ALIASES.get(value);
+            this.value = alias != null ? alias : value;
+        }
+
+        /**
+         * Gets a string that orders known qualifiers by their position and unknown qualifiers after them.
+         */
+        private static String comparableQualifier(String qualifier) {
+            int index = QUALIFIERS.indexOf(qualifier);
+            return index == -1 ? QUALIFIERS.size() + "-" + qualifier : String.valueOf(index);
+        }
+
+        @Override
+        public int compareTo(Item item) {
+            if (item == null) {
+                // 1-rc < 1, 1-ga equals 1
+                return comparableQualifier(value).compareTo(RELEASE_VERSION_INDEX);
+            }
+            if (item instanceof StringItem) {
+                return comparableQualifier(value).compareTo(comparableQualifier(((StringItem) item).value));
+            }
+            // 1.any < 1.1 and 1.any < 1-1
+            return -1;
+        }
+
+        @Override
+        public boolean isNull() {
+            return comparableQualifier(value).equals(RELEASE_VERSION_INDEX);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static final class ListItem extends ArrayList<Item> implements Item {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Removes the trailing items that equal a release, so 1.0.0 equals 1.
+         */
+        void normalize() {
+            for (int index = size() - 1; index >= 0; index--) {
+                Item last = get(index);
+                if (last.isNull()) {
+                    remove(index);
+                } else if (!(last instanceof ListItem)) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Item item) {
+            if (item == null) {
+                return isEmpty() ? 0 : get(0).compareTo(null);
+            }
+            if (item instanceof IntItem) {
+                // 1-1 < 1.0.x
+                return -1;
+            }
+            if (item instanceof StringItem) {
+                // 1-1 > 1-sp
+                return 1;
+            }
+
+            Iterator<Item> left = iterator();
+            Iterator<Item> right = ((ListItem) item).iterator();
+            while (left.hasNext() || right.hasNext()) {
+                Item l = left.hasNext() ? left.next() : null;
+                Item r = right.hasNext() ? right.next() : null;
+                int result = l == null ? (r == null ? 0 : -r.compareTo(null)) : l.compareTo(r);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean isNull() {
+            return isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (Item item : this) {
+                if (builder.length() > 0) {
+                    builder.append(item instanceof ListItem ? '-' : '.');
+                }
+                builder.append(item);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.MavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import cc.maxmc.dependencydownload.dependency.SnapshotDependency;
+import cc.maxmc.dependencydownload.pom.DependencyScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves the transitive dependencies of a set of root dependencies into a deduplicated list, like maven does.
+ * <ul>
+ *     <li>Every {@code groupId:artifactId(:classifier)} is resolved once, the version nearest to the roots wins
+ *     (the first declaration wins between equally near declarations) and the roots always win</li>
+ *     <li>Optional dependencies and dependencies in scopes that are not downloaded ({@link DependencyScope#isDownload()})
+ *     are not followed, the scope of a {@code runtime} dependency's dependencies becomes {@code runtime}</li>
+ *     <li>Exclusions apply to the whole subtree below the declaring dependency</li>
+ *     <li>Version ranges resolve to the highest available version in the range, from the {@link VersionSource}</li>
+ * </ul>
+ * The graph is resolved one level (distance from the roots) at a time, the poms of a level are retrieved in parallel on the provided executor.
+ * The pom of every dependency is retrieved from the {@link PomSource} at most once, concurrent requests for the same pom wait for the same retrieval.
+ * The same applies to the versions of every {@code groupId:artifactId}, for the lifetime of the resolver.
+ */
+@SuppressWarnings("unused") // API
+public class DependencyResolver {
+
+    private final Map<String, CompletableFuture<List<PomDependency>>> poms = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<String>>> versions = new ConcurrentHashMap<>();
+    private final PomSource source;
+    private final VersionSource versionSource;
+    private final Executor executor;
+
+    /**
+     * Creates a {@link DependencyResolver} that retrieves poms one-by-one.
+     *
+     * @param source the source for the poms of dependencies
+     */
+    public DependencyResolver(@NotNull PomSource source) {
+        this(source, null);
+    }
+
+    /**
+     * Creates a {@link DependencyResolver}.
+     *
+     * @param source   the source for the poms of dependencies
+     * @param executor the executor the poms of a level are retrieved on or {@code null} to retrieve them one-by-one
+     */
+    public DependencyResolver(@NotNull PomSource source, @Nullable Executor executor) {
+        this(source, null, executor);
+    }
+
+    /**
+     * Creates a {@link DependencyResolver}.
+     *
+     * @param source        the source for the poms of dependencies
+     * @param versionSource the source for the available versions of dependencies declared with a version range,
+     *                      or {@code null} to fail on version ranges
+     * @param executor      the executor the poms of a level are retrieved on or {@code null} to retrieve them one-by-one
+     */
+    public DependencyResolver(@NotNull PomSource source, @Nullable VersionSource versionSource, @Nullable Executor executor) {
+        this.source = source;
+        this.versionSource = versionSource;
+        this.executor = executor;
+    }
+
+    /**
+     * Resolves the provided root dependencies and their transitive dependencies.
+     *
+     * @param roots the root dependencies, in order
+     * @return the roots followed by their transitive dependencies in breadth-first order, without duplicates
+     * @throws Exception if retrieving a pom or available versions fails, or a dependency declares no (resolvable) version
+     */
+    @NotNull
+    public List<JarMavenObject> resolve(@NotNull List<JarMavenObject> roots) throws Exception {
+        Map<String, JarMavenObject> selected = new LinkedHashMap<>();
+        List<Node> level = new ArrayList<>();
+        for (JarMavenObject root : roots) {
+            if (selected.putIfAbsent(getConflictKey(root), root) == null) {
+                level.add(new Node(root, Collections.emptySet()));
+            }
+        }
+
+        while (!level.isEmpty()) {
+            List<CompletableFuture<List<PomDependency>>> declarations = fetchAll(level);
+
+            // Processed in order, so the result is the same as resolving one pom at a time
+            List<Node> nextLevel = new ArrayList<>();
+            for (int index = 0; index < level.size(); index++) {
+                CompletableFuture<List<PomDependency>> future = declarations.get(index);
+                if (future != null) {
+                    expand(level.get(index), get(future), selected, nextLevel);
+                }
+            }
+
+            level = nextLevel;
+        }
+        return new ArrayList<>(selected.values());
+    }
+
+    private void expand(Node node, List<PomDependency> declarations, Map<String, JarMavenObject> selected, List<Node> nextLevel) throws Exception {
+        for (PomDependency declaration : declarations) {
+            DependencyScope scope = getTransitiveScope(node.dependency.getScope(), declaration.getScope());
+            if (scope == null || declaration.isOptional() || !declaration.getType().equals("jar") || isExcluded(node.exclusions, declaration)) {
+                continue;
+            }
+
+            String key = getConflictKey(declaration.getGroupId(), declaration.getArtifactId(), declaration.getClassifier());
+            if (selected.containsKey(key)) {
+                // A nearer (or earlier) declaration already won
+                continue;
+            }
+
+            String version = getVersion(node, declaration);
+
+            JarMavenObject dependency;
+            if (version.endsWith("-SNAPSHOT")) {
+                // Resolved to the latest snapshot before its pom or jar is retrieved
+                dependency = new SnapshotDependency(declaration.getGroupId(), declaration.getArtifactId(), version, declaration.getClassifier(), null, null, "md5", scope);
+            } else {
+                dependency = new ReleaseDependency(declaration.getGroupId(), declaration.getArtifactId(), version, declaration.getClassifier(), null, "md5", scope);
+            }
+            selected.put(key, dependency);
+
+            Set<String> exclusions = node.exclusions;
+            if (!declaration.getExclusions().isEmpty()) {
+                exclusions = new HashSet<>(exclusions);
+                exclusions.addAll(declaration.getExclusions());
+            }
+            nextLevel.add(new Node(dependency, exclusions));
+        }
+    }
+
+    private String getVersion(Node node, PomDependency declaration) throws Exception {
+        String version = declaration.getVersion();
+        if (version == null || version.contains("${")) {
+            throw new IllegalStateException("Cannot determine the version of " + declaration + " declared by " + node.dependency.getMavenArtifact());
+        }
+        if (!VersionRange.isRange(version)) {
+            return version;
+        }
+        if (versionSource == null) {
+            throw new IllegalStateException("Cannot resolve the version range of " + declaration + " declared by " + node.dependency.getMavenArtifact() + " without a version source");
+        }
+
+        VersionRange range = VersionRange.parse(version);
+        String selected = range.select(getVersions(declaration.getGroupId(), declaration.getArtifactId()));
+        if (selected == null) {
+            throw new IllegalStateException("No version of " + declaration.getGroupId() + ":" + declaration.getArtifactId() + " matches " + range + " declared by " + node.dependency.getMavenArtifact());
+        }
+        return selected;
+    }
+
+    private List<String> getVersions(String groupId, String artifactId) throws Exception {
+        String key = groupId + ":" + artifactId;
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        CompletableFuture<List<String>> existing = versions.putIfAbsent(key, future);
+        if (existing != null) {
+            return get(existing);
+        }
+
+        try {
+            future.complete(versionSource.getVersions(groupId, artifactId));
+        } catch (Throwable t) {
+            // Not remembered, a later resolution tries again
+            versions.remove(key, future);
+            future.completeExceptionally(t);
+        }
+        return get(future);
+    }
+
+    /**
+     * Starts retrieving the poms of the provided level.
+     *
+     * @return the declarations of every node, {@code null} for nodes that are not followed
+     */
+    private List<CompletableFuture<List<PomDependency>>> fetchAll(List<Node> level) {
+        List<CompletableFuture<List<PomDependency>>> futures = new ArrayList<>(level.size());
+        List<Fetch> started = new ArrayList<>();
+        for (Node node : level) {
+            DependencyScope scope = node.dependency.getScope();
+            if (scope == null || !scope.isDownload()) {
+                futures.add(null);
+                continue;
+            }
+
+            String key = node.dependency.getGroupId() + ":" + node.dependency.getArtifactId() + ":" + node.dependency.getVersion();
+            Fetch fetch = new Fetch(key, node.dependency);
+            CompletableFuture<List<PomDependency>> existing = poms.putIfAbsent(key, fetch.future);
+            if (existing != null) {
+                futures.add(existing);
+                continue;
+            }
+
+            futures.add(fetch.future);
+            started.add(fetch);
+            if (executor != null) {
+                try {
+                    executor.execute(fetch);
+                } catch (RejectedExecutionException ignored) {
+                    // Ran below
+                }
+            }
+        }
+
+        // Runs the retrievals the executor did not get to yet, so a busy (or single threaded) executor cannot dead lock the resolution
+        for (Fetch fetch : started) {
+            fetch.run();
+        }
+        return futures;
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Gets the key dependencies conflict on, only one version of dependencies with the same key is resolved.
+     *
+     * @param mavenObject the dependency
+     * @return the {@code groupId:artifactId} and classifier (if any)
+     */
+    @NotNull
+    public static String getConflictKey(@NotNull MavenObject mavenObject) {
+        return getConflictKey(mavenObject.getGroupId(), mavenObject.getArtifactId(), mavenObject.getClassifier());
+    }
+
+    private static String getConflictKey(String groupId, String artifactId, String classifier) {
+        return groupId + ":" + artifactId + (classifier != null ? ":" + classifier : "");
+    }
+
+    /**
+     * Gets the scope of a transitive dependency, following maven's scope table.
+     *
+     * @return the scope or {@code null} if the dependency is not transitive
+     */
+    @Nullable
+    private static DependencyScope getTransitiveScope(DependencyScope parent, DependencyScope declared) {
+        switch (declared) {
+            case COMPILE:
+                return parent;
+            case RUNTIME:
+                return DependencyScope.RUNTIME;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isExcluded(Set<String> exclusions, PomDependency declaration) {
+        if (exclusions.isEmpty()) {
+            return false;
+        }
+        return exclusions.contains(declaration.getGroupId() + ":" + declaration.getArtifactId())
+                || exclusions.contains(declaration.getGroupId() + ":*")
+                || exclusions.contains("*:" + declaration.getArtifactId())
+                || exclusions.contains("*:*");
+    }
+
+    /**
+     * The single retrieval of a pom, executed by whichever thread gets to it first.
+     */
+    private class Fetch implements Runnable {
+
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CompletableFuture<List<PomDependency>> future = new CompletableFuture<>();
+        private final String key;
+        private final JarMavenObject dependency;
+
+        Fetch(String key, JarMavenObject dependency) {
+            this.key = key;
+            this.dependency = dependency;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                future.complete(source.getDependencies(dependency));
+            } catch (Throwable t) {
+                // Not remembered, a later resolution tries again
+                poms.remove(key, future);
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static class Node {
+
+        private final JarMavenObject dependency;
+        private final Set<String> exclusions;
+
+        Node(JarMavenObject dependency, Set<String> exclusions) {
+            this.dependency = dependency;
+            this.exclusions = exclusions;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import cc.maxmc.dependencydownload.pom.DependencyScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A dependency as it is declared in the {@code <dependencies>} of a pom.
+ */
+@SuppressWarnings("unused") // API
+public class PomDependency {
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String classifier;
+    private final String type;
+    private final DependencyScope scope;
+    private final boolean optional;
+    private final Set<String> exclusions;
+
+    /**
+     * Creates a {@link PomDependency}.
+     *
+     * @param groupId    the group id
+     * @param artifactId the artifact id
+     * @param version    the version or {@code null} if the pom does not declare it
+     * @param classifier the classifier or {@code null}
+     * @param scope      the declared scope
+     * @param optional   if the dependency is optional
+     * @param exclusions the excluded transitive dependencies as {@code groupId:artifactId}, either may be {@code *}
+     */
+    public PomDependency(@NotNull String groupId, @NotNull String artifactId, @Nullable String version, @Nullable String classifier,
+                         @NotNull DependencyScope scope, boolean optional, @Nullable Set<String> exclusions) {
+        this(groupId, artifactId, version, classifier, "jar", scope, optional, exclusions);
+    }
+
+    /**
+     * Creates a {@link PomDependency}.
+     *
+     * @param groupId    the group id
+     * @param artifactId the artifact id
+     * @param version    the version or {@code null} if the pom does not declare it
+     * @param classifier the classifier or {@code null}
+     * @param type       the type, {@code jar} for regular dependencies
+     * @param scope      the declared scope or {@code null} if the pom does not declare it
+     * @param optional   if the dependency is optional
+     * @param exclusions the excluded transitive dependencies as {@code groupId:artifactId}, either may be {@code *}
+     */
+    public PomDependency(@NotNull String groupId, @NotNull String artifactId, @Nullable String version, @Nullable String classifier,
+                         @NotNull String type, @Nullable DependencyScope scope, boolean optional, @Nullable Set<String> exclusions) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.classifier = classifier;
+        this.type = type;
+        this.scope = scope;
+        this.optional = optional;
+        this.exclusions = exclusions != null ? exclusions : Collections.emptySet();
+    }
+
+    @NotNull
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @NotNull
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+
+    @Nullable
+    public String getClassifier() {
+        return classifier;
+    }
+
+    @NotNull
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the scope of this dependency.
+     *
+     * @return the declared scope or {@code compile} if no scope is declared
+     * @see #isScopeDeclared()
+     */
+    @NotNull
+    public DependencyScope getScope() {
+        return scope != null ? scope : DependencyScope.COMPILE;
+    }
+
+    /**
+     * If the pom declares the scope of this dependency, otherwise the scope can be provided by dependency management.
+     *
+     * @return true if the scope is declared
+     */
+    public boolean isScopeDeclared() {
+        return scope != null;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    @NotNull
+    public Set<String> getExclusions() {
+        return exclusions;
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId + ":" + version + (classifier != null ? ":" + classifier : "");
+    }
+}
@@ -0,0 +1,23 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Provides the dependencies declared by the pom of a dependency, for example by downloading it from a repository.
+ */
+@FunctionalInterface
+public interface PomSource {
+
+    /**
+     * Gets the dependencies declared by the pom of the provided dependency.
+     *
+     * @param dependency the dependency
+     * @return the declared dependencies, in declaration order
+     * @throws Exception if the pom cannot be retrieved or parsed
+     */
+    @NotNull
+    List<PomDependency> getDependencies(@NotNull JarMavenObject dependency) throws Exception;
+}
@@ -0,0 +1,164 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import cc.maxmc.dependencydownload.dependency.SnapshotDependency;
+import cc.maxmc.dependencydownload.pom.DependencyScope;
+import cc.maxmc.dependencydownload.repository.Repository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The transitive dependencies resolved for a set of root dependencies and repositories, so later starts
+ * can use them without retrieving or parsing any pom.
+ * <p>
+ * The transitive dependencies are stored in order with their scope and, once they were downloaded, their verified hash.
+ * Dependencies loaded with a hash are verified against it instead of the hash file in the repository.
+ * Snapshot dependencies are stored without a snapshot version or hash, so they are resolved to the latest snapshot on every start.
+ */
+@SuppressWarnings("unused") // API
+public class ResolutionLockfile {
+
+    private static final String SEPARATOR = "\t";
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private final Path file;
+
+    /**
+     * Creates a {@link ResolutionLockfile}.
+     *
+     * @param file the file to store the resolved dependencies in
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public ResolutionLockfile(@NotNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Computes the key of the provided roots and repositories, the stored dependencies are only used for the same key.
+     *
+     * @param roots        the root dependencies
+     * @param repositories the repositories
+     * @return the key
+     */
+    @NotNull
+    public static String computeKey(@NotNull List<JarMavenObject> roots, @NotNull List<Repository> repositories) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        for (JarMavenObject root : roots) {
+            update(digest, root.getType() + ":" + root.getMavenArtifact() + ":" + root.getSnapshotVersion()
+                    + ":" + root.getScope() + ":" + root.getHashingAlgorithm() + ":" + root.getHash());
+        }
+        for (Repository repository : repositories) {
+            update(digest, repository.getHost());
+        }
+        return HashUtils.getHash(digest);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Loads the transitive dependencies stored for the provided key.
+     *
+     * @param key the key of the current roots and repositories
+     * @return the transitive dependencies in order or {@code null} if none are stored for the key
+     * @see #computeKey(List, List)
+     */
+    @Nullable
+    public List<JarMavenObject> load(@NotNull String key) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!key.equals(properties.getProperty("key"))) {
+            return null;
+        }
+
+        try {
+            int count = Integer.parseInt(properties.getProperty("count"));
+            List<JarMavenObject> dependencies = new ArrayList<>(count);
+            for (int index = 0; index < count; index++) {
+                String[] parts = properties.getProperty("dependency." + index).split(SEPARATOR, -1);
+                if (parts.length != 7) {
+                    return null;
+                }
+                String classifier = parts[3].isEmpty() ? null : parts[3];
+                DependencyScope scope = DependencyScope.valueOf(parts[4]);
+                if (parts[2].endsWith(SNAPSHOT_SUFFIX)) {
+                    // Resolved to the latest snapshot again
+                    dependencies.add(new SnapshotDependency(parts[0], parts[1], parts[2], classifier, null, null, parts[5], scope));
+                } else {
+                    dependencies.add(new ReleaseDependency(parts[0], parts[1], parts[2], classifier, parts[6].isEmpty() ? null : parts[6], parts[5], scope));
+                }
+            }
+            return dependencies;
+        } catch (RuntimeException e) {
+            // Corrupt, resolved again
+            return null;
+        }
+    }
+
+    /**
+     * Stores the transitive dependencies for the provided key.
+     *
+     * @param key          the key of the roots and repositories the dependencies were resolved for
+     * @param dependencies the transitive dependencies in order
+     * @param hashes       the verified hashes of the dependencies (in their hashing algorithm), {@code null} entries if unknown
+     * @throws IOException if writing the file fails
+     */
+    public void save(@NotNull String key, @NotNull List<JarMavenObject> dependencies, @NotNull List<String> hashes) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("key", key);
+        properties.setProperty("count", String.valueOf(dependencies.size()));
+        for (int index = 0; index < dependencies.size(); index++) {
+            JarMavenObject dependency = dependencies.get(index);
+            // The hash of a snapshot only holds until the next snapshot is deployed
+            String hash = dependency.getVersion().endsWith(SNAPSHOT_SUFFIX) ? null : hashes.get(index);
+            properties.setProperty("dependency." + index, dependency.getGroupId()
+                    + SEPARATOR + dependency.getArtifactId()
+                    + SEPARATOR + dependency.getVersion()
+                    + SEPARATOR + (dependency.getClassifier() != null ? dependency.getClassifier() : "")
+                    + SEPARATOR + (dependency.getScope() != null ? dependency.getScope() : DependencyScope.COMPILE).name()
+                    + SEPARATOR + dependency.getHashingAlgorithm()
+                    + SEPARATOR + (hash != null ? hash : ""));
+        }
+
+        FileUtils.store(file, properties, "Resolved transitive dependencies");
+    }
+
+    /**
+     * Removes the stored dependencies, so the next start resolves them again.
+     *
+     * @throws IOException if deleting the file fails
+     */
+    public void invalidate() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
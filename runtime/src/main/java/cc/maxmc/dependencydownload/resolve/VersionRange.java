@@ -0,0 +1,176 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A maven version range, like {@code [1.2,2.0)}, {@code [1.0]} or {@code (,1.0],[1.2,)}.
+ * <p>
+ * The range contains a version if any of its comma separated restrictions does. Brackets include the bound, parentheses exclude it
+ * and an empty bound is unbounded. Versions are ordered by {@link ComparableVersion}.
+ */
+@SuppressWarnings("unused") // API
+public final class VersionRange {
+
+    private final String spec;
+    private final List<Restriction> restrictions;
+
+    private VersionRange(String spec, List<Restriction> restrictions) {
+        this.spec = spec;
+        this.restrictions = restrictions;
+    }
+
+    /**
+     * Checks if the provided version is a range rather than a single version.
+     *
+     * @param version the version as declared in a pom
+     * @return true if the version is a range
+     */
+    public static boolean isRange(@NotNull String version) {
+        return version.startsWith("[") || version.startsWith("(");
+    }
+
+    /**
+     * Parses the provided version range.
+     *
+     * @param spec the version range
+     * @return the version range
+     * @throws IllegalArgumentException if the version range is invalid
+     */
+    @NotNull
+    public static VersionRange parse(@NotNull String spec) {
+        List<Restriction> restrictions = new ArrayList<>();
+        String process = spec.trim();
+        while (process.startsWith("[") || process.startsWith("(")) {
+            int close = indexOfClose(process);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unbounded range: " + spec);
+            }
+            restrictions.add(Restriction.parse(spec, process.substring(0, close + 1)));
+
+            process = process.substring(close + 1).trim();
+            if (process.startsWith(",")) {
+                process = process.substring(1).trim();
+            }
+        }
+        if (!process.isEmpty() || restrictions.isEmpty()) {
+            throw new IllegalArgumentException("Invalid version range: " + spec);
+        }
+        return new VersionRange(spec, Collections.unmodifiableList(restrictions));
+    }
+
+    private static int indexOfClose(String process) {
+        int parenthesis = process.indexOf(')');
+        int bracket = process.indexOf(']');
+        if (parenthesis < 0 || (bracket >= 0 && bracket < parenthesis)) {
+            return bracket;
+        }
+        return parenthesis;
+    }
+
+    /**
+     * Checks if the provided version is in this range.
+     *
+     * @param version the version
+     * @return true if the version is in this range
+     */
+    public boolean containsVersion(@NotNull ComparableVersion version) {
+        for (Restriction restriction : restrictions) {
+            if (restriction.contains(version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects the highest of the provided versions that is in this range, like maven does.
+     * Snapshot versions are only selected if a bound of this range is a snapshot.
+     *
+     * @param versions the available versions
+     * @return the highest version in this range or {@code null} if none of the versions are in this range
+     */
+    @Nullable
+    public String select(@NotNull Collection<String> versions) {
+        boolean snapshots = spec.contains("-SNAPSHOT");
+        String selected = null;
+        ComparableVersion highest = null;
+        for (String version : versions) {
+            if (!snapshots && version.endsWith("-SNAPSHOT")) {
+                continue;
+            }
+            ComparableVersion comparableVersion = new ComparableVersion(version);
+            if (containsVersion(comparableVersion) && (highest == null || comparableVersion.compareTo(highest) > 0)) {
+                selected = version;
+                highest = comparableVersion;
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    private static class Restriction {
+
+        private final ComparableVersion lower;
+        private final boolean lowerInclusive;
+        private final ComparableVersion upper;
+        private final boolean upperInclusive;
+
+        Restriction(@Nullable ComparableVersion lower, boolean lowerInclusive, @Nullable ComparableVersion upper, boolean upperInclusive) {
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+        }
+
+        static Restriction parse(String spec, String restriction) {
+            boolean lowerInclusive = restriction.startsWith("[");
+            boolean upperInclusive = restriction.endsWith("]");
+            String process = restriction.substring(1, restriction.length() - 1).trim();
+
+            int comma = process.indexOf(',');
+            if (comma < 0) {
+                if (!lowerInclusive || !upperInclusive) {
+                    throw new IllegalArgumentException("Single version must be surrounded by []: " + spec);
+                }
+                ComparableVersion version = new ComparableVersion(process);
+                return new Restriction(version, true, version, true);
+            }
+
+            String lowerBound = process.substring(0, comma).trim();
+            String upperBound = process.substring(comma + 1).trim();
+            if (upperBound.contains(",")) {
+                throw new IllegalArgumentException("Invalid version range: " + spec);
+            }
+            ComparableVersion lower = lowerBound.isEmpty() ? null : new ComparableVersion(lowerBound);
+            ComparableVersion upper = upperBound.isEmpty() ? null : new ComparableVersion(upperBound);
+            if (lower != null && upper != null && upper.compareTo(lower) < 0) {
+                throw new IllegalArgumentException("Range defies version ordering: " + spec);
+            }
+            return new Restriction(lower, lowerInclusive, upper, upperInclusive);
+        }
+
+        boolean contains(ComparableVersion version) {
+            if (lower != null) {
+                int comparison = lower.compareTo(version);
+                if (comparison > 0 || (comparison == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                int comparison = upper.compareTo(version);
+                return comparison > 0 || (comparison == 0 && upperInclusive);
+            }
+            return true;
+        }
+    }
+}
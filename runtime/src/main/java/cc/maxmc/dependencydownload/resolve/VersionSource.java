@@ -0,0 +1,24 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Provides the available versions of artifacts, for example from the {@code maven-metadata.xml} of repositories.
+ * Used by the {@link DependencyResolver} to resolve version ranges.
+ */
+@FunctionalInterface
+public interface VersionSource {
+
+    /**
+     * Gets the available versions of the provided artifact.
+     *
+     * @param groupId    the group id
+     * @param artifactId the artifact id
+     * @return the available versions, in any order
+     * @throws Exception if the versions cannot be retrieved
+     */
+    @NotNull
+    List<String> getVersions(@NotNull String groupId, @NotNull String artifactId) throws Exception;
+}
@@ -104,11 +104,11 @@ public class DependencyDownloadResource {
             }
 
             String[] parts = line.split(" ");
-            if (parts.length != 2) {
+            if (parts.length != 1 && parts.length != 2) {
                 throw new IllegalArgumentException("Resource format is invalid: invalid dependency: " + line);
             }
             String maven = parts[0];
-            String hash = parts[1];
+            String hash = parts.length == 2 ? parts[1] : null;
 
             String[] mavenParts = maven.split(":");
             int partCount = mavenParts.length;
@@ -122,9 +122,22 @@ public class DependencyDownloadResource {
             String snapshotTimestamp;
             String classifier;
             if (version.endsWith("-SNAPSHOT")) {
-                snapshotTimestamp = mavenParts[3];
-                if (partCount == 5) {
-                    classifier = mavenParts[4];
+                // Timestamped snapshot versions start with the base version, classifiers do not
+                String baseVersion = version.substring(0, version.length() - "SNAPSHOT".length());
+                int classifierIndex = 3;
+                if (partCount > 3 && mavenParts[3].startsWith(baseVersion)) {
+                    snapshotTimestamp = mavenParts[3];
+                    classifierIndex = 4;
+                } else {
+                    // Resolved to the latest snapshot when downloading, the hash of a single snapshot does not apply to later ones
+                    snapshotTimestamp = null;
+                    hash = null;
+                }
+                if (partCount > classifierIndex + 1) {
+                    throw new IllegalArgumentException("Resource format is invalid: invalid dependency GAV: " + maven + " (" + partCount + ")");
+                }
+                if (partCount == classifierIndex + 1) {
+                    classifier = mavenParts[classifierIndex];
                 } else {
                     classifier = null;
                 }
@@ -138,7 +151,10 @@ public class DependencyDownloadResource {
             }
 
             JarMavenObject mavenObject;
-            if (snapshotTimestamp == null) {
+            if (hash == null && (snapshotTimestamp != null || !version.endsWith("-SNAPSHOT"))) {
+                throw new IllegalArgumentException("Resource format is invalid: missing hash: " + line);
+            }
+            if (!version.endsWith("-SNAPSHOT")) {
                 mavenObject = new ReleaseDependency(
                         group,
                         artifact,
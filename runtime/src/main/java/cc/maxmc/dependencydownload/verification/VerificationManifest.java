@@ -0,0 +1,211 @@
+package cc.maxmc.dependencydownload.verification;
+
+import cc.maxmc.dependencydownload.common.util.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent record of files whose hash has been verified, so later starts can trust files that have not changed
+ * since without hashing them again.
+ * <p>
+ * A file is considered unchanged when its size, last modified time and file key (if the file system provides one)
+ * are the same as when it was verified. Checking this is a single {@code stat} per file.
+ */
+@SuppressWarnings("unused") // API
+public class VerificationManifest {
+
+    private static final String SEPARATOR = "\t";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Path file;
+    private final boolean fullRehash;
+    private volatile boolean dirty = false;
+
+    /**
+     * Creates a {@link VerificationManifest} that trusts unchanged files.
+     *
+     * @param file the file to persist the manifest in, or {@code null} to only keep it in memory
+     * @throws IOException if the existing manifest cannot be read
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public VerificationManifest(@Nullable Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * Creates a {@link VerificationManifest}.
+     *
+     * @param file       the file to persist the manifest in, or {@code null} to only keep it in memory
+     * @param fullRehash if files should always be hashed again, the manifest is still kept up to date
+     * @throws IOException if the existing manifest cannot be read
+     * @see cc.maxmc.dependencydownload.path.DependencyPathProvider#getMetadataPath(String)
+     */
+    public VerificationManifest(@Nullable Path file, boolean fullRehash) throws IOException {
+        this.file = file;
+        this.fullRehash = fullRehash;
+        load();
+    }
+
+    /**
+     * Checks if the provided file was verified and has not changed since.
+     *
+     * @param path         the file
+     * @param algorithm    the hashing algorithm the file has to be verified with
+     * @param expectedHash the hash the file has to have, or {@code null} if any verified hash is accepted
+     * @return true if the file can be trusted without hashing it
+     */
+    public boolean isVerified(@NotNull Path path, @NotNull String algorithm, @Nullable String expectedHash) {
+        if (fullRehash) {
+            return false;
+        }
+        String hash = getVerifiedHash(path, algorithm);
+        return hash != null && (expectedHash == null || hash.equalsIgnoreCase(expectedHash));
+    }
+
+    /**
+     * Gets the verified hash of the provided file, if it was verified and has not changed since.
+     *
+     * @param path      the file
+     * @param algorithm the hashing algorithm
+     * @return the verified hash or {@code null}
+     */
+    @Nullable
+    public String getVerifiedHash(@NotNull Path path, @NotNull String algorithm) {
+        Entry entry = entries.get(key(path));
+        if (entry == null || !entry.algorithm.equalsIgnoreCase(algorithm)) {
+            return null;
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        if (attributes.size() != entry.size
+                || attributes.lastModifiedTime().toMillis() != entry.lastModified
+                || !Objects.equals(fileKey(attributes), entry.fileKey)) {
+            return null;
+        }
+        return entry.hash;
+    }
+
+    /**
+     * Records that the provided file was verified to have the provided hash.
+     *
+     * @param path      the file
+     * @param algorithm the hashing algorithm
+     * @param hash      the hash of the file
+     * @throws IOException if reading the attributes of the file fails
+     */
+    public void record(@NotNull Path path, @NotNull String algorithm, @NotNull String hash) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        entries.put(key(path), new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), fileKey(attributes), algorithm, hash));
+        dirty = true;
+    }
+
+    /**
+     * Removes the provided file from the manifest.
+     *
+     * @param path the file
+     */
+    public void remove(@NotNull Path path) {
+        if (entries.remove(key(path)) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the manifest to the file it was created with.
+     *
+     * @throws IOException if writing the file fails
+     */
+    public void save() throws IOException {
+        if (file == null || !dirty) {
+            return;
+        }
+        // Cleared before taking the snapshot so changes made while writing are saved the next time,
+        // and set again if the write fails
+        dirty = false;
+        try {
+            Properties properties = new Properties();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                properties.setProperty(entry.getKey(), entry.getValue().toString());
+            }
+            FileUtils.store(file, properties, "Verified files: size, last modified, file key, algorithm, hash");
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            Entry entry = Entry.parse(properties.getProperty(key));
+            if (entry != null) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    private static String fileKey(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return fileKey != null ? fileKey.toString() : "";
+    }
+
+    private static class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+        private final String algorithm;
+        private final String hash;
+
+        Entry(long size, long lastModified, String fileKey, String algorithm, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.algorithm = algorithm;
+            this.hash = hash;
+        }
+
+        @Override
+        public String toString() {
+            return size + SEPARATOR + lastModified + SEPARATOR + fileKey + SEPARATOR + algorithm + SEPARATOR + hash;
+        }
+
+        static Entry parse(String value) {
+            String[] parts = value.split(SEPARATOR, -1);
+            if (parts.length != 5) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2], parts[3], parts[4]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package cc.maxmc.dependencydownload;
+
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import cc.maxmc.dependencydownload.downloader.SingleThreadFileDownloader;
+import cc.maxmc.dependencydownload.downloader.TestRepositoryServer;
+import cc.maxmc.dependencydownload.relocation.ParallelRelocationProvider;
+import cc.maxmc.dependencydownload.relocation.ParallelRelocationProviderTest;
+import cc.maxmc.dependencydownload.relocation.Relocation;
+import cc.maxmc.dependencydownload.repository.StandardRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class DependencyManagerPipelineTest {
+
+    @Test
+    public void pipelineTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            DependencyManager manager = new DependencyManager(Files.createTempDirectory("dependencydownload"), new SingleThreadFileDownloader(), executor);
+            for (int index = 0; index < 5; index++) {
+                byte[] content = new byte[10_000 * (5 - index)];
+                new Random(index).nextBytes(content);
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(content);
+
+                server.put("/com/example/lib" + index + "/1.0/lib" + index + "-1.0.jar", content);
+                manager.addDependency(new ReleaseDependency("com.example", "lib" + index, "1.0", null, HashUtils.getHash(digest), "SHA-256"));
+            }
+
+            List<Path> classpath = Collections.synchronizedList(new ArrayList<>());
+            manager.pipelineAll(Collections.singletonList(new StandardRepository(server.getHost())), null, classpath::add, 2, 1).join();
+
+            // loaded in the order the dependencies were added
+            List<Path> expected = new ArrayList<>();
+            for (JarMavenObject dependency : manager.getDependencies()) {
+                expected.add(manager.getPathForDependency(dependency, false));
+            }
+            Assertions.assertEquals(expected, classpath);
+            Assertions.assertThrows(IllegalStateException.class, () -> manager.download(Collections.emptyList()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failureTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            DependencyManager manager = new DependencyManager(Files.createTempDirectory("dependencydownload"), new SingleThreadFileDownloader(), executor);
+            manager.addDependency(new ReleaseDependency("com.example", "missing", "1.0", null, "00", "SHA-256"));
+
+            List<Path> classpath = new ArrayList<>();
+            Assertions.assertThrows(CompletionException.class, () -> manager.pipelineAll(Collections.singletonList(new StandardRepository(server.getHost())), null, classpath::add).join());
+            Assertions.assertTrue(classpath.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void relocationTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            Path directory = Files.createTempDirectory("dependencydownload");
+            DependencyManager manager = new DependencyManager(directory, new SingleThreadFileDownloader(), executor);
+            manager.addRelocation(new Relocation(ParallelRelocationProviderTest.PACKAGE, "relocated.fixture", null, null));
+
+            Path fixture = directory.resolve("fixture.jar");
+            ParallelRelocationProviderTest.writeFixture(fixture);
+            addDependency(server, manager, "fixture", Files.readAllBytes(fixture));
+            Path unrelated = directory.resolve("unrelated.jar");
+            try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(unrelated))) {
+                ParallelRelocationProviderTest.put(outputStream, "unrelated.txt", "unrelated".getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED);
+            }
+            addDependency(server, manager, "unrelated", Files.readAllBytes(unrelated));
+
+            List<Path> classpath = Collections.synchronizedList(new ArrayList<>());
+            manager.pipelineAll(Collections.singletonList(new StandardRepository(server.getHost())), new ParallelRelocationProvider(), classpath::add, 2, 2).join();
+
+            List<Path> expected = new ArrayList<>();
+            for (JarMavenObject dependency : manager.getDependencies()) {
+                expected.add(manager.getPathForDependency(dependency, true));
+            }
+            Assertions.assertEquals(expected, classpath);
+            try (ZipFile zipFile = new ZipFile(classpath.get(0).toFile())) {
+                Assertions.assertNotNull(zipFile.getEntry("relocated/fixture/Greeter.class"));
+                Assertions.assertNull(zipFile.getEntry(ParallelRelocationProviderTest.PACKAGE.replace('.', '/') + "/Greeter.class"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void partialFailureTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            Path directory = Files.createTempDirectory("dependencydownload");
+            DependencyManager manager = new DependencyManager(directory, new SingleThreadFileDownloader(), executor);
+            manager.addRelocation(new Relocation(ParallelRelocationProviderTest.PACKAGE, "relocated.fixture", null, null));
+
+            Path fixture = directory.resolve("fixture.jar");
+            ParallelRelocationProviderTest.writeFixture(fixture);
+            byte[] content = Files.readAllBytes(fixture);
+            addDependency(server, manager, "first", content);
+            manager.addDependency(new ReleaseDependency("com.example", "missing", "1.0", null, "00", "SHA-256"));
+            addDependency(server, manager, "last", content);
+
+            List<Path> classpath = Collections.synchronizedList(new ArrayList<>());
+            Assertions.assertThrows(CompletionException.class, () -> manager.pipelineAll(Collections.singletonList(new StandardRepository(server.getHost())), new ParallelRelocationProvider(), classpath::add, 3, 2).join());
+
+            // nothing after the failed dependency is loaded, the ones before it may have been
+            List<JarMavenObject> dependencies = manager.getDependencies();
+            Assertions.assertTrue(classpath.size() <= 1);
+            if (!classpath.isEmpty()) {
+                Assertions.assertEquals(manager.getPathForDependency(dependencies.get(0), true), classpath.get(0));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void addDependency(TestRepositoryServer server, DependencyManager manager, String artifactId, byte[] content) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(content);
+        server.put("/com/example/" + artifactId + "/1.0/" + artifactId + "-1.0.jar", content);
+        manager.addDependency(new ReleaseDependency("com.example", artifactId, "1.0", null, HashUtils.getHash(digest), "SHA-256"));
+    }
+}
@@ -0,0 +1,49 @@
+package cc.maxmc.dependencydownload.classpath;
+
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import cc.maxmc.dependencydownload.path.DirectoryDependencyPathProvider;
+import cc.maxmc.dependencydownload.relocation.JarMerger;
+import cc.maxmc.dependencydownload.relocation.Relocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+public class ClasspathFingerprintTest {
+
+    @Test
+    public void classpathTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        DirectoryDependencyPathProvider pathProvider = new DirectoryDependencyPathProvider(directory);
+        List<JarMavenObject> dependencies = Collections.singletonList(new ReleaseDependency("com.example:a:1.0"));
+        Relocation relocation = new Relocation("com.example", "shaded.com.example", null, null);
+
+        String fingerprint = ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), pathProvider);
+        Assertions.assertEquals(fingerprint, ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), pathProvider));
+        Assertions.assertNotEquals(fingerprint, ClasspathFingerprint.compute(dependencies, Collections.emptySet(), pathProvider));
+        Assertions.assertNotEquals(fingerprint, ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), new DirectoryDependencyPathProvider(directory.resolve("other"))));
+        Assertions.assertEquals(fingerprint, ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), pathProvider, null, true));
+        // the downloaded dependencies are loaded instead of the relocated ones
+        Assertions.assertNotEquals(fingerprint, ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), pathProvider, null, false));
+        String merged = ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), pathProvider, new JarMerger(directory.resolve("merged.jar")), true);
+        Assertions.assertNotEquals(fingerprint, merged);
+        Assertions.assertNotEquals(merged, ClasspathFingerprint.compute(dependencies, Collections.singleton(relocation), pathProvider,
+                new JarMerger(directory.resolve("merged.jar"), JarMerger.DuplicatePolicy.FAIL), true));
+
+        Path jar = Files.write(directory.resolve("a-1.0.jar"), new byte[]{1, 2, 3});
+        ClasspathFingerprint classpathFingerprint = new ClasspathFingerprint(directory.resolve("classpath.properties"));
+        Assertions.assertNull(classpathFingerprint.getClasspath(fingerprint));
+        classpathFingerprint.save(fingerprint, Collections.singletonList(jar));
+        Assertions.assertEquals(Collections.singletonList(jar.toAbsolutePath()), classpathFingerprint.getClasspath(fingerprint));
+        Assertions.assertNull(classpathFingerprint.getClasspath("other"));
+
+        // changed files are not trusted
+        Files.write(jar, new byte[]{4}, StandardOpenOption.APPEND);
+        Assertions.assertNull(classpathFingerprint.getClasspath(fingerprint));
+    }
+}
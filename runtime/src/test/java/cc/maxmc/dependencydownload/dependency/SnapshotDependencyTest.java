@@ -0,0 +1,33 @@
+package cc.maxmc.dependencydownload.dependency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SnapshotDependencyTest {
+
+    @Test
+    public void resolveTest() {
+        SnapshotDependency dependency = new SnapshotDependency("com.example:lib:1.0-SNAPSHOT", null);
+        Map<JarMavenObject, String> hashes = new ConcurrentHashMap<>();
+        hashes.put(dependency, "hash");
+        Set<JarMavenObject> dependencies = new HashSet<>();
+        dependencies.add(dependency);
+
+        Assertions.assertFalse(dependency.isResolved());
+        dependency.resolve("1.0-20240101.120000-3");
+        Assertions.assertTrue(dependency.isResolved());
+        Assertions.assertEquals("lib-1.0-20240101.120000-3.jar", dependency.getFileName());
+        Assertions.assertThrows(IllegalStateException.class, () -> dependency.resolve("1.0-20240102.120000-4"));
+
+        // Still found as a key once resolved
+        Assertions.assertEquals("hash", hashes.get(dependency));
+        Assertions.assertTrue(dependencies.contains(dependency));
+        Assertions.assertFalse(dependencies.add(dependency));
+        Assertions.assertEquals(dependency, new SnapshotDependency("com.example:lib:1.0-SNAPSHOT", null));
+    }
+}
@@ -0,0 +1,62 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+/**
+ * Compares the throughput and heap allocation of {@link SingleThreadFileDownloader} and {@link NioFileDownloader}
+ * against a local stand-in repository. Run with {@code main}, it is not part of the test suite.
+ */
+public class DownloaderBenchmark {
+
+    private static final int SIZE = 64 * 1024 * 1024;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        byte[] content = new byte[SIZE];
+        new Random(1).nextBytes(content);
+
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            server.put("/benchmark.jar", content);
+            Path target = Files.createTempFile("dependencydownload", ".jar");
+
+            run("SingleThreadFileDownloader", new SingleThreadFileDownloader(), server, target, false);
+            run("NioFileDownloader", new NioFileDownloader(), server, target, false);
+            run("SingleThreadFileDownloader (SHA-256)", new SingleThreadFileDownloader(), server, target, true);
+            run("NioFileDownloader (SHA-256)", new NioFileDownloader(), server, target, true);
+
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private static void run(String name, FileDownloader downloader, TestRepositoryServer server, Path target, boolean digest) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            download(downloader, server, target, digest);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            download(downloader, server, target, digest);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        double megabytes = (double) SIZE * ITERATIONS / (1024 * 1024);
+        System.err.printf("%-40s %8.1f MiB/s %10d bytes allocated per download%n", name, megabytes / (nanos / 1e9), allocated / ITERATIONS);
+    }
+
+    private static void download(FileDownloader downloader, TestRepositoryServer server, Path target, boolean digest) throws Exception {
+        if (digest) {
+            downloader.downloadFile(server.url("/benchmark.jar"), target, MessageDigest.getInstance("SHA-256"));
+        } else {
+            downloader.downloadFile(server.url("/benchmark.jar"), target);
+        }
+    }
+}
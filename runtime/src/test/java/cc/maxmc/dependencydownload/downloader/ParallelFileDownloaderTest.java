@@ -0,0 +1,165 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ParallelFileDownloaderTest {
+
+    private final byte[] content = new byte[1024 * 1024 + 17];
+
+    public ParallelFileDownloaderTest() {
+        new Random(42).nextBytes(content);
+    }
+
+    @Test
+    public void rangesTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+
+                downloader.downloadFile(server.url("/large.jar"), target);
+
+            }
+
+            Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+            Assertions.assertEquals(4, server.getRangeRequests());
+        }
+    }
+
+    @Test
+    public void fallbackWithoutAcceptRangesTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            server.put("/large.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+
+                downloader.downloadFile(server.url("/large.jar"), target);
+
+            }
+
+            Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+            Assertions.assertEquals(1, server.getGetRequests());
+            Assertions.assertEquals(0, server.getRangeRequests());
+        }
+    }
+
+    @Test
+    public void digestTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(3, 1024)) {
+                downloader.downloadFile(server.url("/large.jar"), target, digest);
+            }
+
+            Assertions.assertEquals(HashUtils.getFileHash(target, "SHA-256"), HashUtils.getHash(digest));
+        }
+    }
+
+    @Test
+    public void partFileTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+            PartFile partFile = new PartFile(target);
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+                downloader.downloadFile(server.url("/large.jar"), partFile, digest);
+            }
+
+            Assertions.assertEquals(4, server.getRangeRequests());
+            Assertions.assertEquals(content.length, partFile.getVerifiedLength());
+            Assertions.assertArrayEquals(content, Files.readAllBytes(partFile.getPath()));
+            Assertions.assertEquals(HashUtils.getFileHash(partFile.getPath(), "SHA-256"), HashUtils.getHash(digest));
+        }
+    }
+
+    @Test
+    public void resumePartFileTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+
+            // a previous parallel attempt failed after the first 1000 bytes
+            PartFile partFile = new PartFile(target);
+            Files.write(partFile.getPath(), Arrays.copyOf(content, 1000));
+            partFile.setProgress(1000, null);
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+                downloader.downloadFile(server.url("/large.jar"), partFile, digest);
+            }
+
+            Assertions.assertEquals(1, server.getRangeRequests());
+            Assertions.assertArrayEquals(content, Files.readAllBytes(partFile.getPath()));
+            Assertions.assertEquals(HashUtils.getFileHash(partFile.getPath(), "SHA-256"), HashUtils.getHash(digest));
+        }
+    }
+
+    @Test
+    public void nonJarFallbackTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.pom", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.pom");
+
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+
+                downloader.downloadFile(server.url("/large.pom"), target);
+
+            }
+
+            Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+            Assertions.assertEquals(1, server.getGetRequests());
+            Assertions.assertEquals(0, server.getRangeRequests());
+        }
+    }
+
+    @Test
+    public void changedAfterProbeTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.jar", content);
+            byte[] changed = content.clone();
+            changed[0]++;
+            server.onHead(() -> server.put("/large.jar", changed));
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+            PartFile partFile = new PartFile(target);
+
+            // the ranges are not mixed from both versions of the file
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+                Assertions.assertThrows(IOException.class, () -> downloader.downloadFile(server.url("/large.jar"), partFile, digest));
+            }
+            Assertions.assertEquals(0, server.getRangeRequests());
+            Assertions.assertEquals(0, partFile.getVerifiedLength());
+        }
+    }
+
+    @Test
+    public void missingRangeTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/large.jar", content);
+            server.onHead(() -> server.remove("/large.jar"));
+            Path target = Files.createTempDirectory("dependencydownload").resolve("large.jar");
+
+            try (ParallelFileDownloader downloader = new ParallelFileDownloader(4, 1024)) {
+                IOException exception = Assertions.assertThrows(IOException.class, () -> downloader.downloadFile(server.url("/large.jar"), target));
+                Assertions.assertTrue(exception.getCause() instanceof FileNotFoundException);
+            }
+        }
+    }
+}
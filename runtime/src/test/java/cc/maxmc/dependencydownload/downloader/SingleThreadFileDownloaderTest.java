@@ -0,0 +1,62 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import cc.maxmc.dependencydownload.common.util.HashUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SingleThreadFileDownloaderTest {
+
+    private final byte[] content = new byte[256 * 1024 + 3];
+
+    public SingleThreadFileDownloaderTest() {
+        new Random(7).nextBytes(content);
+    }
+
+    @Test
+    public void resumeTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(true)) {
+            server.put("/resume.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("resume.jar");
+
+            PartFile partFile = new PartFile(target);
+            // a previous attempt wrote 1000 bytes durably and some garbage after it
+            byte[] written = Arrays.copyOf(content, 1500);
+            Arrays.fill(written, 1000, 1500, (byte) 0);
+            Files.write(partFile.getPath(), written);
+            partFile.setProgress(1000, null);
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new SingleThreadFileDownloader().downloadFile(server.url("/resume.jar"), partFile, digest);
+            partFile.publish();
+
+            Assertions.assertEquals(1, server.getRangeRequests());
+            Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+            Assertions.assertEquals(HashUtils.getFileHash(target, "SHA-256"), HashUtils.getHash(digest));
+            Assertions.assertFalse(Files.exists(partFile.getPath()));
+        }
+    }
+
+    @Test
+    public void restartWithoutRangesTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            server.put("/restart.jar", content);
+            Path target = Files.createTempDirectory("dependencydownload").resolve("restart.jar");
+
+            PartFile partFile = new PartFile(target);
+            Files.write(partFile.getPath(), Arrays.copyOf(content, 1000));
+            partFile.setProgress(1000, null);
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new SingleThreadFileDownloader().downloadFile(server.url("/restart.jar"), partFile, digest);
+
+            Assertions.assertArrayEquals(content, Files.readAllBytes(partFile.getPath()));
+            Assertions.assertEquals(HashUtils.getFileHash(partFile.getPath(), "SHA-256"), HashUtils.getHash(digest));
+        }
+    }
+}
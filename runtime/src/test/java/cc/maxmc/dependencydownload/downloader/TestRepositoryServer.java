@@ -0,0 +1,144 @@
+package cc.maxmc.dependencydownload.downloader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal stand-in for a maven repository, serving in-memory files over HTTP with optional byte range support
+ * and {@code ETag} validation.
+ */
+public class TestRepositoryServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final AtomicInteger getRequests = new AtomicInteger();
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicInteger notModifiedRequests = new AtomicInteger();
+    private final boolean acceptRanges;
+    private volatile Runnable headListener;
+    private volatile Runnable getListener;
+
+    public TestRepositoryServer(boolean acceptRanges) throws IOException {
+        this.acceptRanges = acceptRanges;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public void put(String path, byte[] content) {
+        files.put(path, content);
+    }
+
+    public void remove(String path) {
+        files.remove(path);
+    }
+
+    public String getHost() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public URL url(String path) throws MalformedURLException {
+        return new URL(getHost() + path);
+    }
+
+    public int getGetRequests() {
+        return getRequests.get();
+    }
+
+    public int getRangeRequests() {
+        return rangeRequests.get();
+    }
+
+    public int getNotModifiedRequests() {
+        return notModifiedRequests.get();
+    }
+
+    /**
+     * Runs the provided listener before each {@code HEAD} request is answered, for example to change a file after it was probed.
+     */
+    public void onHead(Runnable listener) {
+        this.headListener = listener;
+    }
+
+    /**
+     * Runs the provided listener before each {@code GET} request is answered, for example to slow down responses.
+     */
+    public void onGet(Runnable listener) {
+        this.getListener = listener;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] content = files.get(exchange.getRequestURI().getPath());
+        if (content == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        if (acceptRanges) {
+            exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        }
+
+        String etag = "\"" + Arrays.hashCode(content) + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            Runnable listener = headListener;
+            if (listener != null) {
+                listener.run();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        getRequests.incrementAndGet();
+        Runnable listener = getListener;
+        if (listener != null) {
+            listener.run();
+        }
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModifiedRequests.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        int start = 0;
+        int end = content.length - 1;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        int status = 200;
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (acceptRanges && range != null && range.startsWith("bytes=") && (ifRange == null || ifRange.equals(etag))) {
+            rangeRequests.incrementAndGet();
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            start = Integer.parseInt(bounds[0]);
+            if (!bounds[1].isEmpty()) {
+                end = Math.min(end, Integer.parseInt(bounds[1]));
+            }
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            status = 206;
+        }
+
+        exchange.sendResponseHeaders(status, end - start + 1);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(content, start, end - start + 1);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,97 @@
+package cc.maxmc.dependencydownload.metadata;
+
+import cc.maxmc.dependencydownload.dependency.SnapshotDependency;
+import cc.maxmc.dependencydownload.downloader.TestRepositoryServer;
+import cc.maxmc.dependencydownload.repository.Repository;
+import cc.maxmc.dependencydownload.repository.StandardRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MavenMetadataCacheTest {
+
+    private static final String METADATA = "<metadata><groupId>metadata.test</groupId><artifactId>lib</artifactId><version>1.0-SNAPSHOT</version>"
+            + "<versioning><snapshot><timestamp>20240102.030405</timestamp><buildNumber>7</buildNumber></snapshot>"
+            + "<lastUpdated>20240102030405</lastUpdated><snapshotVersions>"
+            + "<snapshotVersion><classifier>sources</classifier><extension>jar</extension><value>1.0-20240101.000000-6</value><updated>20240101000000</updated></snapshotVersion>"
+            + "<snapshotVersion><extension>jar</extension><value>1.0-20240102.030405-7</value><updated>20240102030405</updated></snapshotVersion>"
+            + "</snapshotVersions></versioning></metadata>";
+
+    @Test
+    public void parseTest() throws Exception {
+        MavenMetadata metadata = MavenMetadataParser.parse(new ByteArrayInputStream(METADATA.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals("1.0-20240102.030405-7", metadata.getSnapshotVersion(null, "jar").getValue());
+        Assertions.assertEquals("1.0-20240101.000000-6", metadata.getSnapshotVersion("sources", "jar").getValue());
+        // Not listed individually, falls back to the latest snapshot
+        Assertions.assertEquals("1.0-20240102.030405-7", metadata.getSnapshotVersion(null, "pom").getValue());
+        Assertions.assertTrue(metadata.getSnapshotVersion(null, "jar").isNewerThan(metadata.getSnapshotVersion("sources", "jar")));
+    }
+
+    @Test
+    public void cacheTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            server.put("/metadata/test/lib/1.0-SNAPSHOT/maven-metadata.xml", METADATA.getBytes(StandardCharsets.UTF_8));
+            Repository repository = new StandardRepository(server.getHost());
+            SnapshotDependency dependency = new SnapshotDependency("metadata.test:lib:1.0-SNAPSHOT", null);
+
+            // Expires immediately, so every lookup is a conditional request
+            MavenMetadataCache expiring = new MavenMetadataCache(directory, -1);
+            Assertions.assertEquals("1.0-SNAPSHOT", expiring.getVersionMetadata(repository, dependency).getVersion());
+            Assertions.assertEquals("1.0-SNAPSHOT", expiring.getVersionMetadata(repository, dependency).getVersion());
+            Assertions.assertEquals(2, server.getGetRequests());
+            Assertions.assertEquals(1, server.getNotModifiedRequests());
+
+            // Read from the directory without a request
+            MavenMetadataCache cache = new MavenMetadataCache(directory);
+            Assertions.assertEquals("1.0-SNAPSHOT", cache.getVersionMetadata(repository, dependency).getVersion());
+            Assertions.assertEquals(2, server.getGetRequests());
+
+            // Misses are cached too
+            SnapshotDependency missing = new SnapshotDependency("metadata.test:missing:1.0-SNAPSHOT", null);
+            Assertions.assertNull(cache.getVersionMetadata(repository, missing));
+            Assertions.assertNull(new MavenMetadataCache(directory).getVersionMetadata(repository, missing));
+        }
+    }
+
+    @Test
+    public void concurrentRequestsTest() throws Exception {
+        try (TestRepositoryServer server = new TestRepositoryServer(false)) {
+            server.put("/metadata/test/lib/1.0-SNAPSHOT/maven-metadata.xml", METADATA.getBytes(StandardCharsets.UTF_8));
+            server.onGet(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Repository repository = new StandardRepository(server.getHost());
+            SnapshotDependency dependency = new SnapshotDependency("metadata.test:lib:1.0-SNAPSHOT", null);
+            MavenMetadataCache cache = new MavenMetadataCache(null);
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<MavenMetadata>> futures = new ArrayList<>();
+                for (int index = 0; index < 4; index++) {
+                    futures.add(executor.submit(() -> cache.getVersionMetadata(repository, dependency)));
+                }
+                for (Future<MavenMetadata> future : futures) {
+                    Assertions.assertEquals("1.0-SNAPSHOT", future.get().getVersion());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            // the lookups made while the first request was in flight waited for it
+            Assertions.assertEquals(1, server.getGetRequests());
+        }
+    }
+}
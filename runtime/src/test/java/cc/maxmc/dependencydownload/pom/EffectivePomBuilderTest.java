@@ -0,0 +1,81 @@
+package cc.maxmc.dependencydownload.pom;
+
+import cc.maxmc.dependencydownload.dependency.ReleasePom;
+import cc.maxmc.dependencydownload.resolve.PomDependency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EffectivePomBuilderTest {
+
+    private final Map<String, String> poms = new HashMap<>();
+    private final AtomicInteger retrievals = new AtomicInteger();
+    private final EffectivePomBuilder builder = new EffectivePomBuilder(pom -> {
+        retrievals.incrementAndGet();
+        String content = poms.get(pom.getMavenArtifact());
+        return StreamingPomParser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }, null);
+
+    @Test
+    public void buildTest() throws Exception {
+        // The model cache is shared within the JVM, so this test uses its own group id
+        poms.put("build.test:parent:1", "<project><groupId>build.test</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "<properties><lib.version>2.0</lib.version></properties>"
+                + "<dependencyManagement><dependencies>"
+                + dependency("build.test", "managed", "${lib.version}", null)
+                + "<dependency><groupId>build.test</groupId><artifactId>bom</artifactId><version>1</version><type>pom</type><scope>import</scope></dependency>"
+                + "</dependencies></dependencyManagement>"
+                + "<dependencies>" + dependency("build.test", "inherited", "1", null) + "</dependencies></project>");
+        poms.put("build.test:bom:1", "<project><groupId>build.test</groupId><artifactId>bom</artifactId><version>1</version>"
+                + "<dependencyManagement><dependencies>"
+                + dependency("build.test", "managed", "9", null)
+                + dependency("build.test", "from-bom", "3.0", "runtime")
+                + "</dependencies></dependencyManagement></project>");
+        poms.put("build.test:child:1.5", "<project><parent><groupId>build.test</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+                + "<artifactId>child</artifactId><version>1.5</version>"
+                + "<dependencies>"
+                + dependency("build.test", "managed", null, null)
+                + dependency("build.test", "from-bom", null, null)
+                + dependency("${project.groupId}", "sibling", "${project.version}", null)
+                + "</dependencies></project>");
+
+        PomModel model = builder.build(new ReleasePom("build.test:child:1.5"));
+        Assertions.assertEquals("build.test", model.getGroupId());
+        Assertions.assertEquals(Arrays.asList("build.test:inherited:1", "build.test:managed:2.0", "build.test:from-bom:3.0", "build.test:sibling:1.5"), artifacts(model.getDependencies()));
+        Assertions.assertEquals(DependencyScope.RUNTIME, model.getDependencies().get(2).getScope());
+
+        // Parents and boms are retrieved once
+        builder.build(new ReleasePom("build.test:child:1.5"));
+        Assertions.assertEquals(3, retrievals.get());
+    }
+
+    @Test
+    public void interpolateTest() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("a", "${b}-x");
+        properties.put("b", "1");
+        Assertions.assertEquals("1-x.${unknown}", EffectivePomBuilder.interpolate("${a}.${unknown}", properties));
+    }
+
+    private static String dependency(String groupId, String artifactId, String version, String scope) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId>"
+                + (version != null ? "<version>" + version + "</version>" : "")
+                + (scope != null ? "<scope>" + scope + "</scope>" : "") + "</dependency>";
+    }
+
+    private static List<String> artifacts(List<PomDependency> dependencies) {
+        List<String> artifacts = new ArrayList<>();
+        for (PomDependency dependency : dependencies) {
+            artifacts.add(dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion());
+        }
+        return artifacts;
+    }
+}
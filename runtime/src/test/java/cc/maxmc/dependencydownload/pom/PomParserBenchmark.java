@@ -0,0 +1,66 @@
+package cc.maxmc.dependencydownload.pom;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * Compares the throughput and heap allocation of parsing a pom into a DOM with {@link PomParser}
+ * and streaming it with {@link StreamingPomParser}. Run with {@code main}, it is not part of the test suite.
+ */
+public class PomParserBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        byte[] pom = read("/poms/library.pom");
+
+        run("DOM (factory per pom)", pom, PomParserBenchmark::parseDom);
+        run("StreamingPomParser", pom, content -> StreamingPomParser.parse(new ByteArrayInputStream(content)).getDependencies().size());
+    }
+
+    private static int parseDom(byte[] content) throws Exception {
+        // What PomManager did for every pom
+        return new PomParser(DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(content))).getDependencies().size();
+    }
+
+    private static void run(String name, byte[] pom, Parser parser) throws Exception {
+        int blackhole = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            blackhole += parser.parse(pom);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            blackhole += parser.parse(pom);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        System.err.printf("%-30s %8.1f us/pom %10d bytes allocated per pom (%d)%n", name, nanos / 1e3 / ITERATIONS, allocated / ITERATIONS, blackhole);
+    }
+
+    private static byte[] read(String resource) throws Exception {
+        try (InputStream inputStream = PomParserBenchmark.class.getResourceAsStream(resource)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Parser {
+
+        int parse(byte[] pom) throws Exception;
+    }
+}
@@ -0,0 +1,60 @@
+package cc.maxmc.dependencydownload.pom;
+
+import cc.maxmc.dependencydownload.resolve.PomDependency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class StreamingPomParserTest {
+
+    @Test
+    public void parseTest() throws Exception {
+        PomModel model;
+        try (InputStream inputStream = getClass().getResourceAsStream("/poms/library.pom")) {
+            model = StreamingPomParser.parse(inputStream);
+        }
+
+        Assertions.assertNull(model.getGroupId());
+        Assertions.assertEquals("example-library", model.getArtifactId());
+        Assertions.assertEquals("2.4.1", model.getVersion());
+        Assertions.assertEquals("bundle", model.getPackaging());
+        Assertions.assertEquals("com.example:example-parent:7", String.valueOf(model.getParent()));
+        Assertions.assertEquals("1.7.36", model.getProperties().get("slf4j.version"));
+
+        List<PomDependency> managed = model.getDependencyManagement();
+        Assertions.assertEquals(3, managed.size());
+        Assertions.assertEquals("pom", managed.get(0).getType());
+        Assertions.assertEquals(DependencyScope.IMPORT, managed.get(0).getScope());
+        Assertions.assertEquals("${slf4j.version}", managed.get(1).getVersion());
+        Assertions.assertFalse(managed.get(1).isScopeDeclared());
+
+        // Only the project's dependencies, not those of plugins or profiles
+        List<PomDependency> dependencies = model.getDependencies();
+        Assertions.assertEquals(6, dependencies.size());
+        Assertions.assertNull(dependencies.get(0).getVersion());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("commons-logging:commons-logging", "com.example.legacy:*")), dependencies.get(1).getExclusions());
+        Assertions.assertEquals("linux-x86_64", dependencies.get(3).getClassifier());
+        Assertions.assertTrue(dependencies.get(3).isOptional());
+        Assertions.assertEquals(DependencyScope.TEST, dependencies.get(5).getScope());
+    }
+
+    @Test
+    public void unorderedTest() throws Exception {
+        PomModel model;
+        try (InputStream inputStream = getClass().getResourceAsStream("/poms/unordered.pom")) {
+            model = StreamingPomParser.parse(inputStream);
+        }
+
+        // Everything after the dependencies is read as well
+        Assertions.assertEquals(1, model.getDependencies().size());
+        Assertions.assertEquals("example-unordered", model.getArtifactId());
+        Assertions.assertEquals("bundle", model.getPackaging());
+        Assertions.assertEquals("com.example:example-parent:7", String.valueOf(model.getParent()));
+        Assertions.assertEquals(1, model.getDependencyManagement().size());
+        Assertions.assertEquals("${guava.version}", model.getDependencyManagement().get(0).getVersion());
+    }
+}
@@ -0,0 +1,112 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import cc.maxmc.dependencydownload.relocation.fixture.Greeter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class JarMergerTest {
+
+    @Test
+    public void mergeTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path fixture = directory.resolve("fixture.jar");
+        Path other = directory.resolve("other.jar");
+        ParallelRelocationProviderTest.writeFixture(fixture);
+        writeJar(other, "other", "com.example.OtherGreeter");
+
+        JarMerger merger = new JarMerger(directory.resolve("merged").resolve("merged.jar"));
+        Path merged = merger.merge(Arrays.asList(fixture, other));
+
+        try (JarFile jarFile = new JarFile(merged.toFile())) {
+            Assertions.assertNotNull(jarFile.getManifest());
+            Assertions.assertNull(jarFile.getEntry("META-INF/FIXTURE.SF"));
+            Assertions.assertNull(jarFile.getEntry("module-info.class"));
+            Assertions.assertNotNull(jarFile.getEntry("other.txt"));
+            // The first jar is kept, like on a classpath of separate jars
+            Assertions.assertEquals("unrelated", ParallelRelocationProviderTest.read(jarFile, "unrelated.txt"));
+            Assertions.assertEquals(ParallelRelocationProviderTest.PACKAGE + ".Greeter\ncom.example.OtherGreeter\n",
+                    ParallelRelocationProviderTest.read(jarFile, "META-INF/services/java.util.function.Supplier"));
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {merged.toUri().toURL()}, null)) {
+            Class<?> greeter = classLoader.loadClass(Greeter.class.getName());
+            Assertions.assertEquals("hello from " + ParallelRelocationProviderTest.PACKAGE + ".Greeting", ((Supplier<?>) greeter.newInstance()).get());
+        }
+
+        // Not merged again with the same jars
+        FileTime lastModified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(merged, lastModified);
+        merger.merge(Arrays.asList(fixture, other));
+        Assertions.assertEquals(lastModified, Files.getLastModifiedTime(merged));
+
+        // Merged again when the jars change
+        merger.merge(Arrays.asList(other, fixture));
+        Assertions.assertNotEquals(lastModified, Files.getLastModifiedTime(merged));
+        try (JarFile jarFile = new JarFile(merged.toFile())) {
+            Assertions.assertEquals("other", ParallelRelocationProviderTest.read(jarFile, "unrelated.txt"));
+        }
+    }
+
+    @Test
+    public void duplicateTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path first = directory.resolve("first.jar");
+        Path second = directory.resolve("second.jar");
+        writeJar(first, "first", "com.example.FirstGreeter");
+        writeJar(second, "second", "com.example.SecondGreeter");
+
+        JarMerger merger = new JarMerger(directory.resolve("merged.jar"), JarMerger.DuplicatePolicy.FAIL);
+        Assertions.assertThrows(IOException.class, () -> merger.merge(Arrays.asList(first, second)));
+        // The same class in both is not a conflict
+        merger.merge(Arrays.asList(first, first));
+    }
+
+    @Test
+    public void zip64Test() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path large = directory.resolve("large.jar");
+        int count = 70_000;
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(large))) {
+            for (int index = 0; index < count; index++) {
+                ParallelRelocationProviderTest.put(outputStream, "entry/" + index + ".txt", bytes(Integer.toString(index)), ZipEntry.STORED);
+            }
+        }
+
+        // More than 65535 entries need the zip64 end of central directory record, both in the jar and the merged jar
+        Path merged = new JarMerger(directory.resolve("merged.jar")).merge(Arrays.asList(large));
+        try (RawZipReader reader = new RawZipReader(merged)) {
+            // The entries and the manifest
+            Assertions.assertEquals(count + 1, reader.getEntries().size());
+        }
+        try (JarFile jarFile = new JarFile(merged.toFile())) {
+            Assertions.assertEquals(count + 1, jarFile.size());
+            Assertions.assertEquals("69999", ParallelRelocationProviderTest.read(jarFile, "entry/69999.txt"));
+        }
+    }
+
+    private static void writeJar(Path path, String content, String service) throws IOException {
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(path))) {
+            ParallelRelocationProviderTest.put(outputStream, "module-info.class", new byte[] {(byte) 0xCA, (byte) 0xFE}, ZipEntry.DEFLATED);
+            ParallelRelocationProviderTest.put(outputStream, "com/example/Conflict.class", bytes(content), ZipEntry.DEFLATED);
+            ParallelRelocationProviderTest.put(outputStream, content + ".txt", bytes(content), ZipEntry.STORED);
+            ParallelRelocationProviderTest.put(outputStream, "unrelated.txt", bytes(content), ZipEntry.STORED);
+            ParallelRelocationProviderTest.put(outputStream, "META-INF/services/java.util.function.Supplier", bytes(service + "\n"), ZipEntry.DEFLATED);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
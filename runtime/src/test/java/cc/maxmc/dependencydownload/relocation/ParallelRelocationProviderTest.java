@@ -0,0 +1,197 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import cc.maxmc.dependencydownload.relocation.fixture.Greeter;
+import cc.maxmc.dependencydownload.relocation.fixture.Greeting;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class ParallelRelocationProviderTest {
+
+    public static final String PACKAGE = "cc.maxmc.dependencydownload.relocation.fixture";
+
+    @Test
+    public void relocateTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path from = directory.resolve("fixture.jar");
+        Path to = directory.resolve("fixture-relocated.jar");
+        writeFixture(from);
+
+        new ParallelRelocationProvider().run(from, to, Collections.singleton(new Relocation(PACKAGE, "relocated.fixture", null, null)));
+
+        try (ZipFile zipFile = new ZipFile(to.toFile())) {
+            Assertions.assertNull(zipFile.getEntry(path(Greeter.class)));
+            Assertions.assertNotNull(zipFile.getEntry("relocated/fixture/Greeter.class"));
+            Assertions.assertNull(zipFile.getEntry("META-INF/FIXTURE.SF"));
+            Assertions.assertEquals("unrelated", read(zipFile, "unrelated.txt"));
+            Assertions.assertEquals("# The greeter\nrelocated.fixture.Greeter\n", read(zipFile, "META-INF/services/java.util.function.Supplier"));
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {to.toUri().toURL()}, null)) {
+            Class<?> greeter = classLoader.loadClass("relocated.fixture.Greeter");
+            Assertions.assertEquals("hello from relocated.fixture.Greeting", ((Supplier<?>) greeter.newInstance()).get());
+
+            Iterator<Supplier> services = ServiceLoader.load(Supplier.class, classLoader).iterator();
+            Assertions.assertTrue(services.hasNext());
+            Assertions.assertSame(greeter, services.next().getClass());
+        }
+    }
+
+    @Test
+    public void unchangedTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path from = directory.resolve("fixture.jar");
+        Path to = directory.resolve("fixture-relocated.jar");
+        writeFixture(from);
+
+        new ParallelRelocationProvider().run(from, to, Collections.singleton(new Relocation("com.example", "relocated.example", null, null)));
+
+        try (ZipFile original = new ZipFile(from.toFile()); ZipFile relocated = new ZipFile(to.toFile())) {
+            for (String name : new String[] {path(Greeter.class), path(Greeting.class), "unrelated.txt"}) {
+                ZipEntry originalEntry = original.getEntry(name);
+                ZipEntry relocatedEntry = relocated.getEntry(name);
+                // Copied without deflating again
+                Assertions.assertEquals(originalEntry.getMethod(), relocatedEntry.getMethod(), name);
+                Assertions.assertEquals(originalEntry.getCompressedSize(), relocatedEntry.getCompressedSize(), name);
+                Assertions.assertEquals(originalEntry.getCrc(), relocatedEntry.getCrc(), name);
+            }
+        }
+    }
+
+    @Test
+    public void storedTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path from = directory.resolve("fixture.jar");
+        Path to = directory.resolve("fixture-relocated.jar");
+        writeFixture(from);
+
+        new ParallelRelocationProvider(ForkJoinPool.commonPool(), false)
+                .run(from, to, Collections.singleton(new Relocation(PACKAGE, "relocated.fixture", null, null)));
+
+        try (ZipFile zipFile = new ZipFile(to.toFile())) {
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(), entry.getName());
+            }
+            Assertions.assertEquals("# The greeter\nrelocated.fixture.Greeter\n", read(zipFile, "META-INF/services/java.util.function.Supplier"));
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {to.toUri().toURL()}, null)) {
+            Class<?> greeter = classLoader.loadClass("relocated.fixture.Greeter");
+            Assertions.assertEquals("hello from relocated.fixture.Greeting", ((Supplier<?>) greeter.newInstance()).get());
+        }
+    }
+
+    @Test
+    public void incrementalTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path from = directory.resolve("fixture.jar");
+        Path previous = directory.resolve("fixture-previous.jar");
+        Path to = directory.resolve("fixture-relocated.jar");
+        writeFixture(from);
+
+        // A previous version where Greeting is the same and Greeter is different
+        try (RawZipReader reader = new RawZipReader(from); RawZipWriter writer = new RawZipWriter(previous)) {
+            for (RawZipReader.Entry entry : reader.getEntries()) {
+                String name = entry.name.replace(PACKAGE.replace('.', '/'), "relocated/fixture");
+                RawZipWriter.Compressed compressed = RawZipWriter.deflate(name, entry.dosTime, "previous".getBytes(StandardCharsets.UTF_8));
+                if (entry.name.equals(path(Greeting.class))) {
+                    writer.write(compressed.withSource(entry));
+                } else if (entry.name.equals(path(Greeter.class))) {
+                    compressed.withSource(entry).sourceCrc++;
+                    writer.write(compressed);
+                }
+            }
+        }
+
+        new ParallelRelocationProvider().run(from, to, Collections.singleton(new Relocation(PACKAGE, "relocated.fixture", null, null)), previous);
+
+        try (ZipFile zipFile = new ZipFile(to.toFile())) {
+            Assertions.assertEquals("previous", read(zipFile, "relocated/fixture/Greeting.class"));
+            Assertions.assertNotEquals("previous", read(zipFile, "relocated/fixture/Greeter.class"));
+        }
+        try (RawZipReader reader = new RawZipReader(from); RawZipReader relocated = new RawZipReader(to)) {
+            for (RawZipReader.Entry entry : reader.getEntries()) {
+                if (!entry.name.endsWith(".class")) {
+                    continue;
+                }
+                String name = entry.name.replace(PACKAGE.replace('.', '/'), "relocated/fixture");
+                RawZipReader.Entry relocatedEntry = null;
+                for (RawZipReader.Entry candidate : relocated.getEntries()) {
+                    if (candidate.name.equals(name)) {
+                        relocatedEntry = candidate;
+                    }
+                }
+                Assertions.assertNotNull(relocatedEntry, name);
+                // Recorded for the next version
+                Assertions.assertEquals(entry.crc, relocatedEntry.sourceCrc, name);
+                Assertions.assertEquals(entry.size, relocatedEntry.sourceSize, name);
+            }
+        }
+    }
+
+    public static void writeFixture(Path path) throws IOException {
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(path))) {
+            for (Class<?> fixture : new Class<?>[] {Greeter.class, Greeting.class}) {
+                try (InputStream inputStream = fixture.getResourceAsStream(fixture.getSimpleName() + ".class")) {
+                    put(outputStream, path(fixture), readAll(inputStream), ZipEntry.DEFLATED);
+                }
+            }
+            put(outputStream, PACKAGE.replace('.', '/') + "/greeting.txt", "hello\n".getBytes(StandardCharsets.UTF_8), ZipEntry.STORED);
+            put(outputStream, "unrelated.txt", "unrelated".getBytes(StandardCharsets.UTF_8), ZipEntry.STORED);
+            put(outputStream, "META-INF/services/java.util.function.Supplier", ("# The greeter\n" + PACKAGE + ".Greeter\n").getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED);
+            put(outputStream, "META-INF/FIXTURE.SF", "Signature-Version: 1.0\n".getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED);
+        }
+    }
+
+    public static void put(JarOutputStream outputStream, String name, byte[] data, int method) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        outputStream.putNextEntry(entry);
+        outputStream.write(data);
+        outputStream.closeEntry();
+    }
+
+    private static String path(Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    static String read(ZipFile zipFile, String name) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        Assertions.assertNotNull(entry, name);
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            return new String(readAll(inputStream), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Compares relocating a jar with {@link DefaultRelocationProvider} (jar-relocator, needs to be on the classpath)
+ * and {@link ParallelRelocationProvider}, compressed and stored. Run with {@code main}, it is not part of the test suite.
+ * <p>
+ * Usage: {@code RelocationBenchmark [jar pattern shadedPattern]}, without arguments the {@code java.util} classes
+ * of the running JVM (9+) are relocated.
+ */
+public class RelocationBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("relocation-benchmark");
+        Path jar;
+        Set<Relocation> relocations;
+        if (args.length >= 3) {
+            jar = Paths.get(args[0]);
+            relocations = Collections.singleton(new Relocation(args[1], args[2], null, null));
+        } else {
+            jar = directory.resolve("java-util.jar");
+            writeJdkJar(jar, "java/util");
+            relocations = Collections.singleton(new Relocation("java.util", "bench.util", null, null));
+        }
+        System.err.printf("Relocating %s (%d bytes)%n", jar, Files.size(jar));
+
+        try {
+            run("jar-relocator", new DefaultRelocationProvider(RelocationBenchmark.class.getClassLoader()), jar, directory, relocations);
+        } catch (RuntimeException e) {
+            System.err.println("jar-relocator skipped, not on the classpath");
+        }
+        run("ParallelRelocationProvider", new ParallelRelocationProvider(), jar, directory, relocations);
+        run("ParallelRelocationProvider-stored", new ParallelRelocationProvider(ForkJoinPool.commonPool(), false), jar, directory, relocations);
+    }
+
+    private static void run(String name, IRelocationProvider provider, Path jar, Path directory, Set<Relocation> relocations) throws IOException {
+        Path output = directory.resolve(name + ".jar");
+        for (int i = 0; i < WARMUP; i++) {
+            Files.deleteIfExists(output);
+            provider.run(jar, output, relocations);
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Files.deleteIfExists(output);
+            long start = System.nanoTime();
+            provider.run(jar, output, relocations);
+            nanos += System.nanoTime() - start;
+        }
+        System.err.printf("%-30s %8.1f ms/jar %10d bytes%n", name, nanos / 1e6 / ITERATIONS, Files.size(output));
+    }
+
+    private static void writeJdkJar(Path jar, String packagePath) throws IOException {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        Path root = jrt.getPath("modules", "java.base");
+        List<Path> classes;
+        try (Stream<Path> stream = Files.walk(root.resolve(packagePath))) {
+            classes = stream.filter(path -> path.toString().endsWith(".class")).collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Path path : classes) {
+                outputStream.putNextEntry(new ZipEntry(root.relativize(path).toString()));
+                Files.copy(path, (OutputStream) outputStream);
+                outputStream.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RelocationCacheTest {
+
+    @Test
+    public void cacheTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path jar = directory.resolve("fixture.jar");
+        ParallelRelocationProviderTest.writeFixture(jar);
+        AtomicInteger runs = new AtomicInteger();
+        IRelocationProvider provider = new IRelocationProvider() {
+            @Override
+            public void run(Path from, Path to, Set<Relocation> relocations) {
+                runs.incrementAndGet();
+                new ParallelRelocationProvider().run(from, to, relocations);
+            }
+        };
+
+        Relocation fixture = new Relocation(ParallelRelocationProviderTest.PACKAGE, "relocated.fixture", null, null);
+        Relocation unrelated = new Relocation("com.example", "relocated.example", null, null);
+        RelocationCache cache = new RelocationCache(directory.resolve("cache"));
+        Path relocated = cache.relocate(jar, "SHA-256:fixture", Collections.singleton(fixture), provider);
+        Assertions.assertNotEquals(jar, relocated);
+        Assertions.assertTrue(Files.exists(relocated));
+        Assertions.assertEquals(1, runs.get());
+
+        // Shared by other caches in the same directory, also with relocations that do not apply
+        RelocationCache other = new RelocationCache(directory.resolve("cache"));
+        Assertions.assertEquals(relocated, other.relocate(jar, "SHA-256:fixture", new LinkedHashSet<>(Arrays.asList(unrelated, fixture)), provider));
+        Assertions.assertEquals(relocated, other.relocate(jar, "SHA-256:fixture", Collections.singleton(fixture), provider));
+        Assertions.assertEquals(1, runs.get());
+
+        // Not relocated when nothing applies
+        Assertions.assertEquals(jar, cache.relocate(jar, "SHA-256:fixture", Collections.singleton(unrelated), provider));
+        Assertions.assertEquals(1, runs.get());
+
+        // A different jar is relocated again
+        Assertions.assertNotEquals(relocated, cache.relocate(jar, "SHA-256:other", Collections.singleton(fixture), provider));
+        Assertions.assertEquals(2, runs.get());
+
+        // A damaged jar is relocated again
+        truncate(relocated);
+        Assertions.assertEquals(relocated, cache.relocate(jar, "SHA-256:fixture", Collections.singleton(fixture), provider));
+        Assertions.assertEquals(3, runs.get());
+    }
+
+    private static void truncate(Path path) throws IOException {
+        byte[] data = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(data, data.length / 2));
+    }
+}
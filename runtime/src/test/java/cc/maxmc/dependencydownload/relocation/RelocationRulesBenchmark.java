@@ -0,0 +1,107 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures how fast names are matched against 1, 10 and 100 relocations with {@link RelocationRules}, compared to checking
+ * the relocations one by one. Run with {@code main}, it is not part of the test suite.
+ */
+public class RelocationRulesBenchmark {
+
+    private static final int NAMES = 10_000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) {
+        for (int count : new int[] {1, 10, 100}) {
+            List<Relocation> relocations = new ArrayList<>();
+            for (int index = 0; index < count; index++) {
+                relocations.add(new Relocation("org.library" + index + ".api", "shaded.library" + index, null,
+                        Collections.singleton("org.library" + index + ".api.internal.**")));
+            }
+
+            // Half of the names are relocated
+            List<String> names = new ArrayList<>();
+            List<byte[]> descriptors = new ArrayList<>();
+            for (int index = 0; index < NAMES; index++) {
+                String name = index % 2 == 0
+                        ? "org/library" + (index % count) + "/api/Type" + index
+                        : "java/util/concurrent/Type" + index;
+                names.add(name);
+                descriptors.add(("(Ljava/lang/String;L" + name + ";I)V").getBytes(StandardCharsets.UTF_8));
+            }
+
+            RelocationRules rules = new RelocationRules(relocations);
+            List<RelocationRules> linear = new ArrayList<>();
+            for (Relocation relocation : relocations) {
+                linear.add(new RelocationRules(Collections.singleton(relocation)));
+            }
+
+            report(count, "trie find", names, () -> {
+                int found = 0;
+                for (String name : names) {
+                    if (rules.find(name) != null) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+            report(count, "linear find", names, () -> {
+                int found = 0;
+                for (String name : names) {
+                    for (RelocationRules rule : linear) {
+                        if (rule.find(name) != null) {
+                            found++;
+                            break;
+                        }
+                    }
+                }
+                return found;
+            });
+            report(count, "trie mayContain", names, () -> {
+                int found = 0;
+                for (byte[] descriptor : descriptors) {
+                    if (rules.mayContain(descriptor, 0, descriptor.length)) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+            report(count, "linear mayContain", names, () -> {
+                int found = 0;
+                for (byte[] descriptor : descriptors) {
+                    for (RelocationRules rule : linear) {
+                        if (rule.mayContain(descriptor, 0, descriptor.length)) {
+                            found++;
+                            break;
+                        }
+                    }
+                }
+                return found;
+            });
+        }
+    }
+
+    private static void report(int count, String name, List<String> names, Run run) {
+        int result = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            result += run.run();
+        }
+        long nanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            result += run.run();
+            nanos += System.nanoTime() - start;
+        }
+        double perSecond = (double) names.size() * ITERATIONS / (nanos / 1e9);
+        // The result is printed so the loops are not optimized away
+        System.err.printf("%3d rules %-20s %12.0f names/s (%d)%n", count, name, perSecond, result);
+    }
+
+    private interface Run {
+        int run();
+    }
+}
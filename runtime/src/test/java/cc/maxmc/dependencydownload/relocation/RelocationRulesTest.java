@@ -0,0 +1,63 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class RelocationRulesTest {
+
+    @Test
+    public void findTest() {
+        RelocationRules rules = new RelocationRules(Arrays.asList(
+                new Relocation("com.example.api", "relocated.api", null, null),
+                new Relocation("com.example", "relocated.example", null, Collections.singleton("com.example.internal.**")),
+                new Relocation("com.example", "relocated.other", null, null),
+                new Relocation("org.library", "relocated.library", new HashSet<>(Arrays.asList("org.library.*", "org.library.core.**")), null)
+        ));
+
+        Assertions.assertEquals("relocated/api", pattern(rules, "com/example/api/Main.class"));
+        Assertions.assertEquals("relocated/example", pattern(rules, "com/example/Main"));
+        // Excluded from the first matching relocation, the next one in order applies
+        Assertions.assertEquals("relocated/other", pattern(rules, "com/example/internal/deep/Main.class"));
+        Assertions.assertEquals("relocated/library", pattern(rules, "org/library"));
+        Assertions.assertEquals("relocated/library", pattern(rules, "org/library/Main.class"));
+        Assertions.assertEquals("relocated/library", pattern(rules, "org/library/core/deep/Main"));
+        Assertions.assertNull(rules.find("org/library/extra/Main"));
+        Assertions.assertNull(rules.find("com/exampl"));
+        Assertions.assertNull(rules.find("net/example/Main"));
+
+        Assertions.assertTrue(rules.mayContain(bytes("(Lcom/example/Main;)V"), 0, 21));
+        Assertions.assertTrue(rules.mayContain(bytes("org.library.Main"), 0, 16));
+        Assertions.assertFalse(rules.mayContain(bytes("org.library.Main"), 1, 15));
+        Assertions.assertFalse(rules.mayContain(bytes("com/exampl"), 0, 10));
+    }
+
+    @Test
+    public void globTest() {
+        Assertions.assertTrue(RelocationRules.compileGlob("a/*/c").matcher("a/b/c").matches());
+        Assertions.assertFalse(RelocationRules.compileGlob("a/*/c").matcher("a/b/b/c").matches());
+        Assertions.assertTrue(RelocationRules.compileGlob("a/**/c").matcher("a/c").matches());
+        Assertions.assertTrue(RelocationRules.compileGlob("a/**/c").matcher("a/b/b/c").matches());
+        Assertions.assertTrue(RelocationRules.compileGlob("a/**").matcher("a").matches());
+        Assertions.assertTrue(RelocationRules.compileGlob("**/c").matcher("a/b/c").matches());
+        Assertions.assertTrue(RelocationRules.compileGlob("**/**").matcher("a/b").matches());
+        Assertions.assertTrue(RelocationRules.compileGlob("a/b?").matcher("a/bc").matches());
+        Assertions.assertFalse(RelocationRules.compileGlob("a/b?").matcher("a/b/").matches());
+        // Not a regular expression
+        Assertions.assertFalse(RelocationRules.compileGlob("a.b").matcher("aXb").matches());
+    }
+
+    private static String pattern(RelocationRules rules, String path) {
+        RelocationRules.Rule rule = rules.find(path);
+        Assertions.assertNotNull(rule, path);
+        return rule.relocatedPath;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package cc.maxmc.dependencydownload.relocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class RelocationScannerTest {
+
+    @Test
+    public void scanTest() throws Exception {
+        Path jar = Files.createTempDirectory("dependencydownload").resolve("fixture.jar");
+        ParallelRelocationProviderTest.writeFixture(jar);
+
+        Assertions.assertFalse(RelocationScanner.isAffected(jar, Collections.emptySet()));
+        Assertions.assertFalse(RelocationScanner.isAffected(jar, Collections.singleton(new Relocation("com.example", "relocated.example", null, null))));
+        // The entry names
+        Assertions.assertTrue(RelocationScanner.isAffected(jar, Collections.singleton(new Relocation(ParallelRelocationProviderTest.PACKAGE, "relocated.fixture", null, null))));
+        // The name of the service file and the constant pool of Greeter, which implements Supplier
+        Assertions.assertTrue(RelocationScanner.isAffected(jar, Collections.singleton(new Relocation("java.util.function", "relocated.function", null, null))));
+        // Everything in the package is excluded, including the implementation listed in the service file
+        Assertions.assertFalse(RelocationScanner.isAffected(jar, Collections.singleton(new Relocation(ParallelRelocationProviderTest.PACKAGE, "relocated.fixture",
+                null, Collections.singleton(ParallelRelocationProviderTest.PACKAGE + ".*")))));
+    }
+}
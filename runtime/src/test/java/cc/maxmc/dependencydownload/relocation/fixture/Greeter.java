@@ -0,0 +1,15 @@
+package cc.maxmc.dependencydownload.relocation.fixture;
+
+import java.util.function.Supplier;
+
+public class Greeter implements Supplier<String> {
+
+    @Override
+    public String get() {
+        try {
+            return Greeting.text() + " from " + Class.forName("cc.maxmc.dependencydownload.relocation.fixture.Greeting").getName();
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
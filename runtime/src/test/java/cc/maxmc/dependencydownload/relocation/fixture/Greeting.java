@@ -0,0 +1,21 @@
+package cc.maxmc.dependencydownload.relocation.fixture;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+public class Greeting {
+
+    public static String text() {
+        try (InputStream inputStream = Greeting.class.getResourceAsStream("greeting.txt")) {
+            if (inputStream == null) {
+                return "missing";
+            }
+            return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).readLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
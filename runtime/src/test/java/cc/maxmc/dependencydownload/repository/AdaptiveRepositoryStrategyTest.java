@@ -0,0 +1,68 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AdaptiveRepositoryStrategyTest {
+
+    private final Repository mirror = new StandardRepository("https://mirror.example.com");
+    private final Repository central = new StandardRepository("https://central.example.com");
+    private final List<Repository> repositories = Arrays.asList(mirror, central);
+
+    @Test
+    public void reorderTest() throws Exception {
+        Path scoreFile = Files.createTempDirectory("dependencydownload").resolve("scores.properties");
+        AdaptiveRepositoryStrategy strategy = new AdaptiveRepositoryStrategy(scoreFile);
+
+        // the mirror does not have anything from org.example
+        Assertions.assertEquals(Arrays.asList(mirror, central), attempts(strategy, "org.example.lib"));
+        Assertions.assertEquals(Arrays.asList(central), attempts(strategy, "org.example.lib"));
+        Assertions.assertEquals(Arrays.asList(central), attempts(strategy, "org.example.other"));
+        // other group id prefixes are unaffected
+        Assertions.assertEquals(Arrays.asList(mirror), attempts(strategy, "com.example"));
+
+        strategy.save();
+        Assertions.assertEquals(Arrays.asList(central), attempts(new AdaptiveRepositoryStrategy(scoreFile), "org.example.lib"));
+    }
+
+    @Test
+    public void notFoundPenaltyTest() throws Exception {
+        AdaptiveRepositoryStrategy strategy = new AdaptiveRepositoryStrategy(null);
+
+        // the mirror does not have it, central had a server error
+        Assertions.assertThrows(Exception.class, () -> strategy.select(new ReleaseDependency("org.example:a:1.0"), repositories, repository -> {
+            if (repository == mirror) {
+                throw new FileNotFoundException(repository.getHost());
+            }
+            throw new IOException("Server returned HTTP response code 500 for " + repository.getHost());
+        }));
+
+        List<Repository> attempted = new ArrayList<>();
+        strategy.select(new ReleaseDependency("org.example:b:1.0"), repositories, repository -> {
+            attempted.add(repository);
+            return null;
+        });
+        Assertions.assertEquals(Arrays.asList(central), attempted);
+    }
+
+    private List<Repository> attempts(RepositoryStrategy strategy, String groupId) {
+        List<Repository> attempted = new ArrayList<>();
+        strategy.select(new ReleaseDependency(groupId + ":a:1.0"), repositories, repository -> {
+            attempted.add(repository);
+            if (repository == mirror && groupId.startsWith("org.example")) {
+                throw new FileNotFoundException(repository.getHost());
+            }
+            return null;
+        });
+        return attempted;
+    }
+}
@@ -0,0 +1,88 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class NegativeLookupCacheTest {
+
+    private final Repository repository = new StandardRepository("https://repo.example.com");
+    private final ReleaseDependency release = new ReleaseDependency("org.example:a:1.0");
+    private final ReleaseDependency snapshot = new ReleaseDependency("org.example:a:1.1-SNAPSHOT");
+
+    @Test
+    public void recordFailureTest() throws Exception {
+        NegativeLookupCache cache = new NegativeLookupCache(null);
+
+        // server errors and connection problems may be gone on the next request
+        cache.recordFailure(repository, release, new IOException("Server returned HTTP response code 500 for " + repository.getHost()));
+        cache.recordFailure(repository, release, new IllegalStateException("Failed to download", new SocketTimeoutException("Read timed out")));
+        Assertions.assertFalse(cache.isMissing(repository, release));
+
+        cache.recordFailure(repository, release, new IllegalStateException("Failed to download", new FileNotFoundException(repository.getHost())));
+        Assertions.assertTrue(cache.isMissing(repository, release));
+        Assertions.assertThrows(FileNotFoundException.class, () -> cache.checkMissing(repository, release));
+        // other repositories are unaffected
+        Assertions.assertFalse(cache.isMissing(new StandardRepository("https://other.example.com"), release));
+    }
+
+    @Test
+    public void expiryTest() throws Exception {
+        NegativeLookupCache cache = new NegativeLookupCache(null, 50, 50);
+        cache.recordMiss(repository, release);
+        Assertions.assertThrows(FileNotFoundException.class, () -> cache.checkMissing(repository, release));
+
+        Thread.sleep(100);
+        cache.checkMissing(repository, release);
+        Assertions.assertFalse(cache.isMissing(repository, release));
+    }
+
+    @Test
+    public void snapshotExpiryTest() throws Exception {
+        NegativeLookupCache cache = new NegativeLookupCache(null, 60_000, 50);
+        cache.recordMiss(repository, release);
+        cache.recordMiss(repository, snapshot);
+
+        Thread.sleep(100);
+        Assertions.assertTrue(cache.isMissing(repository, release));
+        Assertions.assertFalse(cache.isMissing(repository, snapshot));
+    }
+
+    @Test
+    public void persistTest() throws Exception {
+        Path file = Files.createTempDirectory("dependencydownload").resolve("misses.properties");
+        NegativeLookupCache cache = new NegativeLookupCache(file, 60_000, 50);
+        cache.recordMiss(repository, release);
+        cache.recordMiss(repository, snapshot);
+        cache.save();
+
+        NegativeLookupCache reloaded = new NegativeLookupCache(file, 60_000, 50);
+        Assertions.assertTrue(reloaded.isMissing(repository, release));
+        Assertions.assertThrows(FileNotFoundException.class, () -> reloaded.checkMissing(repository, release));
+
+        // expired misses are not loaded again
+        Thread.sleep(100);
+        Assertions.assertFalse(new NegativeLookupCache(file, 60_000, 50).isMissing(repository, snapshot));
+    }
+
+    @Test
+    public void failedSaveTest() throws Exception {
+        Path blocked = Files.createTempDirectory("dependencydownload").resolve("blocked");
+        Files.createFile(blocked);
+        Path file = blocked.resolve("misses.properties");
+        NegativeLookupCache cache = new NegativeLookupCache(file);
+        cache.recordMiss(repository, release);
+        Assertions.assertThrows(IOException.class, cache::save);
+
+        // the misses are still saved once the file can be written
+        Files.delete(blocked);
+        cache.save();
+        Assertions.assertTrue(new NegativeLookupCache(file).isMissing(repository, release));
+    }
+}
@@ -0,0 +1,75 @@
+package cc.maxmc.dependencydownload.repository;
+
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class RacingRepositoryStrategyTest {
+
+    private final JarMavenObject mavenObject = new ReleaseDependency("a:a:1.0");
+    private final Repository slow = new StandardRepository("https://slow.example.com");
+    private final Repository fast = new StandardRepository("https://fast.example.com");
+    private final Repository missing = new StandardRepository("https://missing.example.com");
+
+    @Test
+    public void raceTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        String result = new RacingRepositoryStrategy(2).select(mavenObject, Arrays.asList(slow, fast), repository -> {
+            if (repository == slow) {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    cancelled.countDown();
+                    throw e;
+                }
+            } else {
+                // otherwise the slow attempt may be cancelled before it starts
+                started.await(5, TimeUnit.SECONDS);
+            }
+            return repository.getHost();
+        });
+
+        Assertions.assertEquals(fast.getHost(), result);
+        Assertions.assertTrue(cancelled.await(5, TimeUnit.SECONDS), "losing attempt was not cancelled");
+    }
+
+    @Test
+    public void hedgeTest() {
+        long start = System.nanoTime();
+        String result = new RacingRepositoryStrategy(1, 50, 0).select(mavenObject, Arrays.asList(slow, fast), repository -> {
+            if (repository == slow) {
+                Thread.sleep(10_000);
+            }
+            return repository.getHost();
+        });
+
+        Assertions.assertEquals(fast.getHost(), result);
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+    }
+
+    @Test
+    public void fallbackTest() {
+        List<Repository> repositories = Arrays.asList(missing, fast);
+        String result = new RacingRepositoryStrategy(1).select(mavenObject, repositories, repository -> {
+            if (repository == missing) {
+                throw new FileNotFoundException(repository.getHost());
+            }
+            return repository.getHost();
+        });
+        Assertions.assertEquals(fast.getHost(), result);
+
+        RuntimeException failure = Assertions.assertThrows(RuntimeException.class, () -> new RacingRepositoryStrategy(2).select(mavenObject, repositories, repository -> {
+            throw new FileNotFoundException(repository.getHost());
+        }));
+        Assertions.assertEquals(2, failure.getSuppressed().length);
+    }
+}
@@ -0,0 +1,132 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import cc.maxmc.dependencydownload.pom.DependencyScope;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DependencyResolverTest {
+
+    private final Map<String, List<PomDependency>> poms = new HashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final DependencyResolver resolver = new DependencyResolver(dependency -> {
+        requests.incrementAndGet();
+        return poms.getOrDefault(dependency.getMavenArtifact(), Collections.emptyList());
+    });
+
+    @Test
+    public void mediationTest() throws Exception {
+        declare("app:a:1", compile("lib:shared:2"), compile("app:b:1"));
+        declare("app:b:1", compile("lib:shared:1"), compile("lib:deep:1"));
+        declare("app:c:1", compile("app:b:1"));
+
+        List<JarMavenObject> resolved = resolver.resolve(Arrays.asList(new ReleaseDependency("app:a:1"), new ReleaseDependency("app:c:1")));
+        Assertions.assertEquals(Arrays.asList("app:a:1", "app:c:1", "lib:shared:2", "app:b:1", "lib:deep:1"), artifacts(resolved));
+        // app:b is reachable twice but only retrieved once
+        Assertions.assertEquals(5, requests.get());
+    }
+
+    @Test
+    public void scopeTest() throws Exception {
+        declare("app:a:1",
+                new PomDependency("lib", "test", "1", null, DependencyScope.TEST, false, null),
+                new PomDependency("lib", "provided", "1", null, DependencyScope.PROVIDED, false, null),
+                new PomDependency("lib", "optional", "1", null, DependencyScope.COMPILE, true, null),
+                new PomDependency("lib", "runtime", "1", null, DependencyScope.RUNTIME, false, null),
+                new PomDependency("lib", "excluding", "1", null, DependencyScope.COMPILE, false, Collections.singleton("lib:excluded")));
+        declare("lib:runtime:1", compile("lib:runtime-child:1"));
+        declare("lib:excluding:1", compile("lib:excluded:1"), compile("lib:kept:1"));
+
+        List<JarMavenObject> resolved = resolver.resolve(Collections.singletonList(new ReleaseDependency("app:a:1")));
+        Assertions.assertEquals(Arrays.asList("app:a:1", "lib:runtime:1", "lib:excluding:1", "lib:runtime-child:1", "lib:kept:1"), artifacts(resolved));
+        Assertions.assertEquals(DependencyScope.RUNTIME, resolved.get(3).getScope());
+    }
+
+    @Test
+    public void concurrentTest() throws Exception {
+        declare("app:a:1", compile("lib:x:1"), compile("lib:y:1"), compile("lib:z:1"));
+        declare("lib:x:1", compile("lib:shared:1"));
+        declare("lib:y:1", compile("lib:shared:1"));
+        Map<String, AtomicInteger> retrievals = new HashMap<>();
+        for (String artifact : Arrays.asList("app:a:1", "lib:x:1", "lib:y:1", "lib:z:1", "lib:shared:1")) {
+            retrievals.put(artifact, new AtomicInteger());
+        }
+
+        // A single thread, which is also busy running both resolutions
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DependencyResolver resolver = new DependencyResolver(dependency -> {
+                retrievals.get(dependency.getMavenArtifact()).incrementAndGet();
+                Thread.sleep(20);
+                return poms.getOrDefault(dependency.getMavenArtifact(), Collections.emptyList());
+            }, executor);
+            List<JarMavenObject> roots = Collections.singletonList(new ReleaseDependency("app:a:1"));
+
+            CompletableFuture<List<JarMavenObject>> first = CompletableFuture.supplyAsync(() -> resolve(resolver, roots));
+            List<JarMavenObject> second = resolver.resolve(roots);
+            Assertions.assertEquals(artifacts(second), artifacts(first.get()));
+            Assertions.assertEquals(Arrays.asList("app:a:1", "lib:x:1", "lib:y:1", "lib:z:1", "lib:shared:1"), artifacts(second));
+            for (Map.Entry<String, AtomicInteger> entry : retrievals.entrySet()) {
+                Assertions.assertEquals(1, entry.getValue().get(), entry.getKey());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rangeTest() throws Exception {
+        declare("app:a:1", compile("lib:ranged:[1.0,2.0)"), compile("app:b:1"));
+        declare("app:b:1", compile("lib:other:(,1.5]"));
+        AtomicInteger versionRequests = new AtomicInteger();
+        DependencyResolver resolver = new DependencyResolver(
+                dependency -> poms.getOrDefault(dependency.getMavenArtifact(), Collections.emptyList()),
+                (groupId, artifactId) -> {
+                    versionRequests.incrementAndGet();
+                    return Arrays.asList("0.9", "1.0", "1.5", "1.10", "2.0");
+                },
+                null
+        );
+
+        List<JarMavenObject> roots = Collections.singletonList(new ReleaseDependency("app:a:1"));
+        Assertions.assertEquals(Arrays.asList("app:a:1", "lib:ranged:1.10", "app:b:1", "lib:other:1.5"), artifacts(resolver.resolve(roots)));
+        resolver.resolve(roots);
+        // The versions of every artifact are only retrieved once
+        Assertions.assertEquals(2, versionRequests.get());
+
+        declare("app:c:1", compile("lib:ranged:[3.0,)"));
+        Assertions.assertThrows(IllegalStateException.class, () -> this.resolver.resolve(Collections.singletonList(new ReleaseDependency("app:c:1"))));
+    }
+
+    private static List<JarMavenObject> resolve(DependencyResolver resolver, List<JarMavenObject> roots) {
+        try {
+            return resolver.resolve(roots);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void declare(String artifact, PomDependency... dependencies) {
+        poms.put(artifact, Arrays.asList(dependencies));
+    }
+
+    private static PomDependency compile(String artifact) {
+        String[] parts = artifact.split(":");
+        return new PomDependency(parts[0], parts[1], parts[2], null, DependencyScope.COMPILE, false, null);
+    }
+
+    private static List<String> artifacts(List<JarMavenObject> dependencies) {
+        List<String> artifacts = new ArrayList<>();
+        for (JarMavenObject dependency : dependencies) {
+            artifacts.add(dependency.getMavenArtifact());
+        }
+        return artifacts;
+    }
+}
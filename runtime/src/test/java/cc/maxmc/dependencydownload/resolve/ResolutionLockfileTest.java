@@ -0,0 +1,47 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import cc.maxmc.dependencydownload.dependency.JarMavenObject;
+import cc.maxmc.dependencydownload.dependency.ReleaseDependency;
+import cc.maxmc.dependencydownload.pom.DependencyScope;
+import cc.maxmc.dependencydownload.repository.StandardRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ResolutionLockfileTest {
+
+    @Test
+    public void lockfileTest() throws Exception {
+        Path file = Files.createTempDirectory("dependencydownload").resolve("resolution.properties");
+        List<JarMavenObject> roots = Collections.singletonList(new ReleaseDependency("lock.test:a:1.0"));
+        String key = ResolutionLockfile.computeKey(roots, Collections.singletonList(new StandardRepository("https://repo.test")));
+        Assertions.assertNotEquals(key, ResolutionLockfile.computeKey(roots, Collections.singletonList(new StandardRepository("https://other.test"))));
+
+        List<JarMavenObject> transitives = Arrays.asList(
+                new ReleaseDependency("lock.test", "b", "2.0", null, null, "SHA-256", DependencyScope.COMPILE),
+                new ReleaseDependency("lock.test", "c", "3.0", "native", null, "md5", DependencyScope.RUNTIME)
+        );
+        ResolutionLockfile lockfile = new ResolutionLockfile(file);
+        Assertions.assertNull(lockfile.load(key));
+        lockfile.save(key, transitives, Arrays.asList("abc", null));
+
+        List<JarMavenObject> loaded = new ResolutionLockfile(file).load(key);
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(transitives, loaded);
+        Assertions.assertEquals("abc", loaded.get(0).getHash());
+        Assertions.assertEquals("SHA-256", loaded.get(0).getHashingAlgorithm());
+        Assertions.assertNull(loaded.get(1).getHash());
+        Assertions.assertEquals("native", loaded.get(1).getClassifier());
+        Assertions.assertEquals(DependencyScope.RUNTIME, loaded.get(1).getScope());
+
+        // other roots are resolved again
+        Assertions.assertNull(lockfile.load("other"));
+        lockfile.invalidate();
+        Assertions.assertNull(lockfile.load(key));
+    }
+}
@@ -0,0 +1,44 @@
+package cc.maxmc.dependencydownload.resolve;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class VersionRangeTest {
+
+    @Test
+    public void orderingTest() {
+        List<String> ordered = Arrays.asList("1-alpha-1", "1-alpha2", "1-beta-1", "1-m1", "1-rc1", "1-SNAPSHOT", "1", "1-sp", "1-abc", "1-1", "1.0.1", "1.1", "1.10", "2");
+        for (int index = 1; index < ordered.size(); index++) {
+            ComparableVersion lower = new ComparableVersion(ordered.get(index - 1));
+            ComparableVersion higher = new ComparableVersion(ordered.get(index));
+            Assertions.assertTrue(lower.compareTo(higher) < 0, lower + " < " + higher);
+            Assertions.assertTrue(higher.compareTo(lower) > 0, higher + " > " + lower);
+        }
+
+        Assertions.assertEquals(new ComparableVersion("1"), new ComparableVersion("1.0.0"));
+        Assertions.assertEquals(new ComparableVersion("1-ga"), new ComparableVersion("1.FINAL"));
+        Assertions.assertEquals(new ComparableVersion("1-cr1"), new ComparableVersion("1-rc-1"));
+    }
+
+    @Test
+    public void rangeTest() {
+        List<String> versions = Arrays.asList("1.0", "1.1", "1.2", "1.10", "2.0-SNAPSHOT", "2.0", "2.1");
+        Assertions.assertEquals("1.10", VersionRange.parse("[1.0,2.0)").select(versions));
+        Assertions.assertEquals("2.0", VersionRange.parse("[1.0,2.0]").select(versions));
+        Assertions.assertEquals("1.1", VersionRange.parse("[1.1]").select(versions));
+        Assertions.assertEquals("1.0", VersionRange.parse("(,1.0]").select(versions));
+        Assertions.assertEquals("2.1", VersionRange.parse("(1.2,)").select(versions));
+        Assertions.assertEquals("1.2", VersionRange.parse("(,1.1],[1.2,1.3)").select(versions));
+        Assertions.assertNull(VersionRange.parse("[3.0,)").select(versions));
+
+        Assertions.assertFalse(VersionRange.parse("(1.0,2.0)").containsVersion(new ComparableVersion("1.0")));
+        Assertions.assertTrue(VersionRange.isRange("[1.0,2.0)"));
+        Assertions.assertFalse(VersionRange.isRange("1.0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[2.0,1.0]"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[1.0,2.0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("(1.0)"));
+    }
+}
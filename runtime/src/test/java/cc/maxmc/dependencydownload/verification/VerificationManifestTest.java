@@ -0,0 +1,35 @@
+package cc.maxmc.dependencydownload.verification;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class VerificationManifestTest {
+
+    @Test
+    public void verifiedTest() throws Exception {
+        Path directory = Files.createTempDirectory("dependencydownload");
+        Path manifestFile = directory.resolve("verified.properties");
+        Path jar = Files.write(directory.resolve("a-1.0.jar"), new byte[]{1, 2, 3});
+
+        VerificationManifest manifest = new VerificationManifest(manifestFile);
+        Assertions.assertFalse(manifest.isVerified(jar, "SHA-256", null));
+        manifest.record(jar, "SHA-256", "abc");
+        manifest.save();
+
+        VerificationManifest loaded = new VerificationManifest(manifestFile);
+        Assertions.assertTrue(loaded.isVerified(jar, "SHA-256", null));
+        Assertions.assertTrue(loaded.isVerified(jar, "SHA-256", "ABC"));
+        Assertions.assertFalse(loaded.isVerified(jar, "SHA-256", "def"));
+        Assertions.assertFalse(loaded.isVerified(jar, "MD5", null));
+        Assertions.assertFalse(new VerificationManifest(manifestFile, true).isVerified(jar, "SHA-256", null));
+
+        // changed files are not trusted
+        Files.write(jar, new byte[]{4}, StandardOpenOption.APPEND);
+        Assertions.assertFalse(loaded.isVerified(jar, "SHA-256", null));
+        Assertions.assertNull(loaded.getVerifiedHash(jar, "SHA-256"));
+    }
+}